@@ -2,6 +2,8 @@ package driver;
 
 import framework.utilities.ConfigurationLib;
 import framework.utilities.ExcelLib;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.testng.IAnnotationTransformer;
 import org.testng.annotations.ITestAnnotation;
 import org.testng.internal.ClassHelper;
@@ -10,48 +12,110 @@ import org.testng.internal.annotations.JDK15AnnotationFinder;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AnnotationTransformerImpl implements IAnnotationTransformer {
 
+	private static Logger logger = LoggerFactory.getLogger(AnnotationTransformerImpl.class);
+
+	private static ExcelLib testData;
+	private static final Map<Class<?>, Integer> invocationCounts = new ConcurrentHashMap<Class<?>, Integer>();
+	private static long discoveryTime = 0;
+
 	/**
 	 * To set the invocation count of each script
+	 *
+	 * @note The test data is read once per JVM and the invocation count is
+	 *       computed once per class, all the @Test methods of a class share it
 	 */
 	@SuppressWarnings("rawtypes")
 	@Override
 	public void transform(ITestAnnotation annotation, Class testClass, Constructor testConstructor, Method testMethod) {
 		try {
-			String className, scriptName;
-			int methodCount = 0, invocationCount = 0;
-
-			ConfigurationLib configLib = new ConfigurationLib();
-
-			className = testMethod.toString().replace("public void ", "");
-			className = className.split(" throws")[0];
-			className = className.substring(0, className.lastIndexOf("."));
-			scriptName = className.substring(className.lastIndexOf(".") + 1, className.length());
-
-			Set<Method> allMethods = ClassHelper.getAvailableMethods(Class.forName(className));
-			for (Method eachMethod : allMethods) {
-				ITestAnnotation value = AnnotationHelper.findTest(new JDK15AnnotationFinder(new DummyTransformer()),
-						eachMethod);
-				if (value != null) {
-					methodCount++;
-				}
+			long startTime = System.nanoTime();
+			Class<?> scriptClass = testMethod.getDeclaringClass();
+			Integer invocationCount = invocationCounts.get(scriptClass);
+			if (invocationCount == null) {
+				invocationCount = getInvocationCount(scriptClass);
+				invocationCounts.put(scriptClass, invocationCount);
 			}
-
-			ExcelLib testData = new ExcelLib();
-			testData.connectToExcel(configLib.getTestDataPath());
-			if (methodCount != 0)
-				invocationCount = (int) Math.ceil((float) testData.getNumberOfOccurences(scriptName) / methodCount);
-
 			annotation.setInvocationCount(invocationCount);
+			synchronized (AnnotationTransformerImpl.class) {
+				discoveryTime += System.nanoTime() - startTime;
+			}
 		}
 		catch (Exception e) {
 			e.printStackTrace();
 		}
 	}
 
+	/**
+	 * To compute the invocation count of a script i.e. the number of times the
+	 * script is specified in the TestMap sheet divided by its number of @Test
+	 * methods
+	 */
+	private int getInvocationCount(Class<?> scriptClass) throws Exception {
+		int methodCount = 0, invocationCount = 0;
+		Set<Method> allMethods = ClassHelper.getAvailableMethods(scriptClass);
+		JDK15AnnotationFinder finder = new JDK15AnnotationFinder(new DummyTransformer());
+		for (Method eachMethod : allMethods) {
+			ITestAnnotation value = AnnotationHelper.findTest(finder, eachMethod);
+			if (value != null) {
+				methodCount++;
+			}
+		}
+
+		if (methodCount != 0)
+			invocationCount = (int) Math.ceil(
+					(float) getTestData().getNumberOfOccurences(scriptClass.getSimpleName()) / methodCount);
+		logger.debug("Invocation count of " + scriptClass.getSimpleName() + ": " + invocationCount);
+		return invocationCount;
+	}
+
+	/**
+	 * To get the test data which is read during the discovery of the scripts. The
+	 * workbook is read on the first call and shared by the rest of the suite
+	 *
+	 * @return testData Returns the connected test data
+	 */
+	public static synchronized ExcelLib getTestData() {
+		if (testData == null) {
+			ConfigurationLib configLib = new ConfigurationLib();
+			ExcelLib excel = new ExcelLib();
+			if (excel.connectToExcel(configLib.getTestDataPath()))
+				testData = excel;
+			else
+				return excel;
+		}
+		return testData;
+	}
+
+	/**
+	 * To check whether the test data is already read during the discovery of the
+	 * scripts
+	 */
+	public static synchronized boolean isTestDataLoaded() {
+		return testData != null;
+	}
+
+	/**
+	 * @return Returns the time spent in computing the invocation counts in
+	 *         milliseconds
+	 */
+	public static synchronized long getDiscoveryTime() {
+		return discoveryTime / 1000000;
+	}
+
+	/**
+	 * @return Returns the number of script classes whose invocation count is
+	 *         computed
+	 */
+	public static int getNumOfScriptsDiscovered() {
+		return invocationCounts.size();
+	}
+
 	private static class DummyTransformer implements IAnnotationTransformer {
 
 		@SuppressWarnings("rawtypes")
@@ -61,4 +125,4 @@ public class AnnotationTransformerImpl implements IAnnotationTransformer {
 		}
 
 	}
-}
\ No newline at end of file
+}
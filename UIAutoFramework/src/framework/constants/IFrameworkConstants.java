@@ -1,9 +1,6 @@
 package framework.constants;
 
 import framework.utilities.ConfigurationLib;
-import org.openqa.selenium.WebDriver;
-
-import java.util.HashMap;
 
 /**
  * IFrameworkConstants interface contains base suite reference, browser
@@ -12,9 +9,6 @@ import java.util.HashMap;
  */
 public interface IFrameworkConstants {
 	ConfigurationLib configLib = new ConfigurationLib();
-	public static HashMap<WebDriver, Integer> chromePool = new HashMap<WebDriver, Integer>();
-	public static HashMap<WebDriver, Integer> firefoxPool = new HashMap<WebDriver, Integer>();
-	public static HashMap<WebDriver, Integer> iePool = new HashMap<WebDriver, Integer>();
 
 	/**
 	 * Enum of browsers supported
@@ -35,6 +29,49 @@ public interface IFrameworkConstants {
 		}
 	}
 
+	/**
+	 * Enum of element states which can be queried in a batch. Any other name is
+	 * queried as an attribute of the element
+	 */
+	public enum ElementState {
+		PRESENT("present"),
+		DISPLAYED("displayed"),
+		ENABLED("enabled"),
+		SELECTED("selected"),
+		TEXT("text"),
+		VALUE("value"),
+		IN_VIEWPORT("inViewport");
+
+		private String name;
+
+		ElementState(String name) {
+			this.name = name;
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
+	/**
+	 * Enum of the phases of a UI action whose time is recorded separately
+	 */
+	public enum ActionPhase {
+		LOCATE("locate"),
+		WAIT("wait"),
+		EXECUTE("execute");
+
+		private String name;
+
+		ActionPhase(String name) {
+			this.name = name;
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
 	/**
 	 * Time Stamp Format Values
 	 */
@@ -97,6 +134,8 @@ public interface IFrameworkConstants {
 
 		CONFIG_PROPERTIES("/Configurations/Config.properties"),
 		TEST_DATA_PATH("TestDataPath"),
+		TEST_DATA_CACHE("TestDataCache"),
+		TEST_DATA_FLUSH_INTERVAL("TestDataFlushInterval"),
 		TEST_SUITE_PATH("TestSuitePath"),
 		BINARY_PATH("BinaryPath"),
 		CHROME_DRIVER("ChromeDriver"),
@@ -119,6 +158,12 @@ public interface IFrameworkConstants {
 		IS_CIS("isCIS"),
 		CONNECT_TO_EXISING_SESSION("ConnectToExisingSession"),
 		THREAD_COUNT("ThreadCount"),
+		BROWSER_POOL_SIZE("BrowserPoolSize"),
+		SOFT_RESET("SoftReset"),
+		BROWSER_MAX_AGE("BrowserMaxAge"),
+		BROWSER_MAX_ITERATIONS("BrowserMaxIterations"),
+		BROWSER_MAX_PROBE_LATENCY("BrowserMaxProbeLatency"),
+		BROWSER_HEALTH_CHECK_INTERVAL("BrowserHealthCheckInterval"),
 		INCOGNITO_MODE("IncognitoMode"),
 		REWRITE_EXISTING_REPORT("RewriteExistingReport"),
 		CLEAR_SCREENSHOTS_FOLDER("ClearScreenshotsFolder"),
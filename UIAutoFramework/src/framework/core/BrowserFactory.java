@@ -1,7 +1,10 @@
 package framework.core;
 
-import framework.constants.IFrameworkConstants;
-import framework.utilities.ConfigurationLib;
+import framework.constants.ITestdataEnums;
+import framework.utilities.ExcelLib;
+import framework.utilities.PageReadyLib;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -14,15 +17,54 @@ import org.openqa.selenium.remote.DesiredCapabilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
-public class BrowserFactory implements IFrameworkConstants {
+public class BrowserFactory implements ITestdataEnums {
+
+	private static final long RESET_TIME_OUT = 10000;
+	private static final int MAX_RESET_ATTEMPTS = 3;
+	private static final String CLEAR_STORAGE = "var done = arguments[arguments.length - 1], w = window;"
+			+ "try { w.localStorage && w.localStorage.clear(); } catch (e) {}"
+			+ "try { w.sessionStorage && w.sessionStorage.clear(); } catch (e) {}"
+			+ "if (!w.Promise) { done(true); return; }"
+			+ "var tasks = [];"
+			+ "if (w.indexedDB && w.indexedDB.databases)"
+			+ "  tasks.push(w.indexedDB.databases().then(function (dbs) {"
+			+ "    return Promise.all(dbs.map(function (db) {"
+			+ "      return new Promise(function (resolve) {"
+			+ "        var request = w.indexedDB.deleteDatabase(db.name);"
+			+ "        request.onsuccess = request.onerror = request.onblocked = resolve;"
+			+ "      });"
+			+ "    }));"
+			+ "  }));"
+			+ "if (w.navigator.serviceWorker && w.navigator.serviceWorker.getRegistrations)"
+			+ "  tasks.push(w.navigator.serviceWorker.getRegistrations().then(function (registrations) {"
+			+ "    return Promise.all(registrations.map(function (registration) { return registration.unregister(); }));"
+			+ "  }));"
+			+ "if (w.caches && w.caches.keys)"
+			+ "  tasks.push(w.caches.keys().then(function (keys) {"
+			+ "    return Promise.all(keys.map(function (key) { return w.caches['delete'](key); }));"
+			+ "  }));"
+			+ "Promise.all(tasks.map(function (task) { return task['catch'](function () {}); }))"
+			+ "  .then(function () { done(true); });";
+
+	private static final String DOWNLOAD_MIME_TYPES = "application/xml, text/xml, application/json, application/x-tar,"
+			+ " application/x-compressed, application/x-zip-compressed,application/zip, multipart/x-zip,"
+			+ " application/gnutar";
+
+	private static final LongAdder resets = new LongAdder(), resetTime = new LongAdder();
+	private static final Map<String, Capabilities> templates = new HashMap<String, Capabilities>();
+	private static final Map<String, LaunchTime> launchTimes = new ConcurrentHashMap<String, LaunchTime>();
 
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 	private WebDriver driver = null;
-	private ConfigurationLib configLib = new ConfigurationLib();
 
 	/**
 	 * To launch respective browser and navigate to the login or dashboard page
@@ -38,14 +80,7 @@ public class BrowserFactory implements IFrameworkConstants {
 			if (strBrowser == null)
 				strBrowser = Browser.CHROME.toString();
 			if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1")) {
-				if (strBrowser.equalsIgnoreCase(Browser.CHROME.toString()))
-					connectToExistingBrowserIfExist(strBrowser, chromePool);
-				else if (strBrowser.equalsIgnoreCase(Browser.FIREFOX.toString()))
-					connectToExistingBrowserIfExist(strBrowser, firefoxPool);
-				else if (strBrowser.equalsIgnoreCase(Browser.IE.toString()))
-					connectToExistingBrowserIfExist(strBrowser, iePool);
-				else
-					throw new Exception("Invalid browser. Please select either Chrome, Firefox or IE");
+				driver = acquireCleanSession(BrowserPool.getPool(strBrowser));
 			}
 			else
 				driver = openNewBrowser(strBrowser);
@@ -63,33 +98,131 @@ public class BrowserFactory implements IFrameworkConstants {
 	}
 
 	/**
-	 * To connect to existing browser if exists otherwise open a new browser
+	 * To check out a session of the pool. When SoftReset is 1, a session which has
+	 * been used by a script is reset and a session which can't be reset is closed
+	 * and the next one is checked out. A new session is not reset
 	 *
-	 * @param strbrowser
-	 *            Browser to be launched
-	 * @param browserPool
-	 *            Browser pool to be searched
+	 * @param pool
+	 *            Pool of the browser type
+	 * @return driver Returns a new or reset browser session
+	 * @throws Exception
+	 *             if no session could be reset in MAX_RESET_ATTEMPTS attempts
+	 */
+	private WebDriver acquireCleanSession(BrowserPool pool) throws Exception {
+		boolean softReset = "1".equals(configLib.getSoftResetConfig());
+		for (int attempt = 1; attempt <= MAX_RESET_ATTEMPTS; attempt++) {
+			WebDriver session = pool.acquire();
+			if (!softReset || pool.isNew(session) || resetSession(session))
+				return session;
+			pool.discard(session);
+			quit(session);
+		}
+		throw new Exception("Unable to reset a browser session in " + MAX_RESET_ATTEMPTS + " attempts");
+	}
+
+	/**
+	 * To reset a reused browser session to the state of a new browser without
+	 * relaunching it. The extra windows are closed and the local storage, session
+	 * storage, IndexedDB databases, service workers, cache storage and cookies of
+	 * the page which is open are cleared before navigating to about:blank
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @return reset Returns false if the session couldn't be reset and should be
+	 *         relaunched
+	 * @note The storage is cleared for the origin of the page which is open, which
+	 *       is the application under test
 	 */
-	private void connectToExistingBrowserIfExist(String strbrowser, Map<WebDriver, Integer> browserPool) {
+	public boolean resetSession(WebDriver driver) {
+		long startTime = System.currentTimeMillis();
 		try {
-			if (browserPool.isEmpty())
-				driver = openNewBrowser(strbrowser);
-			else {
-				cleanUpAbandonedBrowsers(browserPool);
-				for (Map.Entry<WebDriver, Integer> browser : browserPool.entrySet()) {
-					if (browser.getValue() == 0)
-						driver = browser.getKey();
-				}
-				if (driver == null || driver.toString().contains("(null)"))
-					driver = openNewBrowser(strbrowser);
-				else {
-					browserPool.put(driver, 1);
-					logger.info("Connected to existing browser");
+			String mainWindow = driver.getWindowHandle();
+			for (String window : driver.getWindowHandles()) {
+				if (!window.equals(mainWindow)) {
+					driver.switchTo().window(window);
+					driver.close();
 				}
 			}
+			driver.switchTo().window(mainWindow);
+			driver.switchTo().defaultContent();
+			if (driver.getCurrentUrl().startsWith("http")) {
+				PageReadyLib.setScriptTimeout(driver, RESET_TIME_OUT);
+				((JavascriptExecutor) driver).executeAsyncScript(CLEAR_STORAGE);
+			}
+			driver.manage().deleteAllCookies();
+			driver.get("about:blank");
+			long timeTaken = System.currentTimeMillis() - startTime;
+			resets.increment();
+			resetTime.add(timeTaken);
+			logger.info("Reset the browser session in " + timeTaken + " ms");
+			return true;
+		}
+		catch (Exception e) {
+			logger.warn("Unable to reset the browser session. It will be relaunched", e);
+			return false;
+		}
+	}
+
+	/**
+	 * To log the number of sessions reset and the average time taken
+	 */
+	public static void logResetStatistics() {
+		long count = resets.sum();
+		LoggerFactory.getLogger(BrowserFactory.class).info("Browser session reset: count=" + count + ", avg="
+				+ (count == 0 ? 0 : resetTime.sum() / count) + " ms, total=" + resetTime.sum() + " ms");
+	}
+
+	private void quit(WebDriver driver) {
+		try {
+			driver.quit();
 		}
 		catch (Exception e) {
-			logger.error("Unable to connect to existing browser", e);
+			logger.debug("Unable to close the browser", e);
+		}
+	}
+
+	/**
+	 * To launch the browsers of the pool in the background while the suite is
+	 * initialized. ThreadCount browsers are launched, shared between the browser
+	 * types in proportion to their number of records in the test data
+	 *
+	 * @param testData
+	 *            Test data of the suite
+	 * @note This is done only when ConnectToExisingSession is 1
+	 */
+	public void prewarmBrowserPool(ExcelLib testData) {
+		int threadCount, total = 0;
+		try {
+			threadCount = Integer.parseInt(configLib.getThreadCountConfig().trim());
+		}
+		catch (Exception e) {
+			threadCount = 1;
+		}
+		Map<String, Integer> browsers = new HashMap<String, Integer>();
+		for (Map.Entry<String, Integer> browser : testData
+				.getValueCounts(Sheetname.TEST_DATA.toString(), Testdata.BROWSER.toString()).entrySet()) {
+			String strBrowser = browser.getKey().trim().isEmpty() ? Browser.CHROME.toString() : browser.getKey();
+			browsers.merge(strBrowser, browser.getValue(), Integer::sum);
+			total += browser.getValue();
+		}
+		if (browsers.isEmpty()) {
+			browsers.put(Browser.CHROME.toString(), 1);
+			total = 1;
+		}
+		List<Map.Entry<String, Integer>> predicted = new ArrayList<Map.Entry<String, Integer>>(browsers.entrySet());
+		predicted.sort((first, second) -> second.getValue() - first.getValue());
+		int remaining = threadCount;
+		for (Map.Entry<String, Integer> browser : predicted) {
+			if (remaining <= 0)
+				break;
+			String strBrowser = browser.getKey();
+			int count = Math.min(Math.max(Math.round((float) threadCount * browser.getValue() / total), 1), remaining);
+			try {
+				remaining -= BrowserPool.getPool(strBrowser).prewarm(count);
+			}
+			catch (IllegalArgumentException e) {
+				logger.warn("Unable to launch " + strBrowser + " in the background. " + e.getMessage());
+			}
 		}
 	}
 
@@ -98,102 +231,166 @@ public class BrowserFactory implements IFrameworkConstants {
 	 *
 	 * @param browser
 	 *            Browser to be opened
-	 * @return driver WebDriver object
+	 * @return driver Returns the new WebDriver object or null if the browser can't
+	 *         be launched
 	 */
 	@SuppressWarnings("deprecation")
-	private WebDriver openNewBrowser(String browser) {
+	WebDriver openNewBrowser(String browser) {
+		WebDriver newDriver = null;
 		try {
-			logger.info("Launched new browser: " + browser);
-			if (browser.equalsIgnoreCase(Browser.CHROME.toString())) {
-				System.setProperty("webdriver.chrome.driver", configLib.getChromeDriverPath());
-				HashMap<String, Object> chromePrefs = new HashMap<String, Object>();
-				chromePrefs.put("download.default_directory",
-						configLib.getSharedFolderPath() + configLib.getDownloadedFilesPath());
-				chromePrefs.put("download.directory_upgrade", "true");
-				chromePrefs.put("profile.default_content_settings.popups", 0);
-				chromePrefs.put("download.prompt_for_download", "false");
-				chromePrefs.put("profile.default_content_setting_values.automatic_downloads", 1);
-				chromePrefs.put("safebrowsing.enabled", "true");
-				ChromeOptions options = new ChromeOptions();
-				if (configLib.getIncognitoModeConfig().equals("1"))
-					options.addArguments("incognito");
-				options.setExperimentalOption("prefs", chromePrefs);
-				options.addArguments("--test-type");
-				options.addArguments("--disable-extensions");
-				options.addArguments("--safebrowsing-disable-extension-blacklist");
-				options.addArguments("--safebrowsing-disable-download-protection");
-				if (configLib.getIsHeadlessMode().equalsIgnoreCase("True")) {
-					options.addArguments("--window-size=1920,1080");
-					options.addArguments("--headless");
-				}
-				DesiredCapabilities capabilities = DesiredCapabilities.chrome();
-				capabilities.setCapability(CapabilityType.ForSeleniumServer.ENSURING_CLEAN_SESSION, true);
-				capabilities.setCapability(CapabilityType.ACCEPT_SSL_CERTS, true);
-				capabilities.setCapability(ChromeOptions.CAPABILITY, options);
-				driver = new ChromeDriver(capabilities);
-				if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1"))
-					chromePool.put(driver, 1);
-			}
-			else if (browser.equalsIgnoreCase(Browser.FIREFOX.toString())) {
-				System.setProperty("webdriver.gecko.driver", configLib.getGeckoDriverPath());
-				FirefoxProfile profile = new FirefoxProfile();
-				FirefoxOptions options = new FirefoxOptions();
-				if (configLib.getIncognitoModeConfig().equals("1"))
-					profile.setPreference("browser.privatebrowsing.autostart", true);
-				profile.setPreference("browser.download.folderList", 2);
-				profile.setPreference("browser.download.manager.showWhenStarting", false);
-				profile.setPreference("browser.download.dir",
-						configLib.getSharedFolderPath() + configLib.getDownloadedFilesPath());
-				profile.setPreference("browser.download.useDownloadDir", true);
-				profile.setPreference("browser.helperApps.neverAsk.openFile",
-						"application/xml, text/xml, application/json, application/x-tar, application/x-compressed, application/x-zip-compressed,application/zip, multipart/x-zip, application/gnutar");
-				profile.setPreference("browser.helperApps.neverAsk.saveToDisk",
-						"application/xml, text/xml, application/json, application/x-tar, application/x-compressed, application/x-zip-compressed,application/zip, multipart/x-zip, application/gnutar");
-				profile.setPreference("browser.helperApps.alwaysAsk.force", false);
-				profile.setAcceptUntrustedCertificates(true);
-				profile.setAssumeUntrustedCertificateIssuer(false);
-				options.setProfile(profile);
-				driver = new FirefoxDriver(options);
-				if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1"))
-					firefoxPool.put(driver, 1);
-			}
-			else if (browser.equalsIgnoreCase(Browser.IE.toString())) {
-				System.setProperty("webdriver.ie.driver", configLib.getIEDriverPath());
-				DesiredCapabilities capabilities = DesiredCapabilities.internetExplorer();
-				if (configLib.getIncognitoModeConfig().equals("1")) {
-					capabilities.setCapability(InternetExplorerDriver.FORCE_CREATE_PROCESS, true);
-					capabilities.setCapability(InternetExplorerDriver.IE_SWITCHES, "-private");
-				}
-				capabilities.setCapability(InternetExplorerDriver.IE_ENSURE_CLEAN_SESSION, true);
-				capabilities.setCapability(InternetExplorerDriver.INTRODUCE_FLAKINESS_BY_IGNORING_SECURITY_DOMAINS,
-						true);
-				capabilities.setCapability("requireWindowFocus", true);
-				driver = new InternetExplorerDriver(capabilities);
-				if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1"))
-					iePool.put(driver, 1);
-			}
+			Capabilities template = getTemplate(browser);
+			long startTime = System.currentTimeMillis();
+			if (browser.equalsIgnoreCase(Browser.CHROME.toString()))
+				newDriver = new ChromeDriver(new DesiredCapabilities(template));
+			else if (browser.equalsIgnoreCase(Browser.FIREFOX.toString()))
+				newDriver = new FirefoxDriver(new FirefoxOptions().setProfile(((FirefoxOptions) template).getProfile()));
+			else
+				newDriver = new InternetExplorerDriver(new DesiredCapabilities(template));
+			long timeTaken = System.currentTimeMillis() - startTime;
+			launchTimes.computeIfAbsent(template.getBrowserName(), name -> new LaunchTime()).add(timeTaken);
+			logger.info("Launched new browser: " + browser + " in " + timeTaken + " ms");
 		}
 		catch (Exception e) {
 			logger.error("Unable to open a new browser of type " + browser, e);
 		}
-		return driver;
+		return newDriver;
 	}
 
 	/**
-	 * To clean up abandoned browser objects
+	 * To get the capabilities of a browser type. They are created on the first
+	 * launch of the browser type and copied by every launch, so the config is read,
+	 * the driver path is set and the Firefox profile is serialized once per suite
 	 *
-	 * @param browserPool
-	 *            Browser pool to be cleaned
+	 * @param browser
+	 *            Browser name i.e. Chrome, Firefox or IE
+	 * @return template Returns the capabilities which must not be modified
+	 * @throws IOException
+	 *             if the Firefox profile can't be serialized
+	 * @throws IllegalArgumentException
+	 *             if the browser is not supported
 	 */
-	private void cleanUpAbandonedBrowsers(Map<WebDriver, Integer> browserPool) {
-		try {
-			for (Map.Entry<WebDriver, Integer> browser : browserPool.entrySet()) {
-				if (browser.getKey().toString().contains("(null)"))
-					browserPool.remove(browser.getKey());
+	@SuppressWarnings("deprecation")
+	private static synchronized Capabilities getTemplate(String browser) throws IOException {
+		Capabilities template = templates.get(browser.toLowerCase());
+		if (template != null)
+			return template;
+		long startTime = System.currentTimeMillis();
+		String downloadPath = configLib.getSharedFolderPath() + configLib.getDownloadedFilesPath();
+		boolean incognito = configLib.getIncognitoModeConfig().equals("1");
+		if (browser.equalsIgnoreCase(Browser.CHROME.toString())) {
+			System.setProperty("webdriver.chrome.driver", configLib.getChromeDriverPath());
+			HashMap<String, Object> chromePrefs = new HashMap<String, Object>();
+			chromePrefs.put("download.default_directory", downloadPath);
+			chromePrefs.put("download.directory_upgrade", "true");
+			chromePrefs.put("profile.default_content_settings.popups", 0);
+			chromePrefs.put("download.prompt_for_download", "false");
+			chromePrefs.put("profile.default_content_setting_values.automatic_downloads", 1);
+			chromePrefs.put("safebrowsing.enabled", "true");
+			ChromeOptions options = new ChromeOptions();
+			if (incognito)
+				options.addArguments("incognito");
+			options.setExperimentalOption("prefs", chromePrefs);
+			options.addArguments("--test-type");
+			options.addArguments("--disable-extensions");
+			options.addArguments("--safebrowsing-disable-extension-blacklist");
+			options.addArguments("--safebrowsing-disable-download-protection");
+			if (configLib.getIsHeadlessMode().equalsIgnoreCase("True")) {
+				options.addArguments("--window-size=1920,1080");
+				options.addArguments("--headless");
 			}
+			DesiredCapabilities capabilities = DesiredCapabilities.chrome();
+			capabilities.setCapability(CapabilityType.ForSeleniumServer.ENSURING_CLEAN_SESSION, true);
+			capabilities.setCapability(CapabilityType.ACCEPT_SSL_CERTS, true);
+			capabilities.setCapability(ChromeOptions.CAPABILITY, options);
+			template = capabilities;
 		}
-		catch (Exception e) {
-			logger.error("Unable to clear the abandoned browser session", e);
+		else if (browser.equalsIgnoreCase(Browser.FIREFOX.toString())) {
+			System.setProperty("webdriver.gecko.driver", configLib.getGeckoDriverPath());
+			FirefoxProfile profile = new SerializedFirefoxProfile();
+			if (incognito)
+				profile.setPreference("browser.privatebrowsing.autostart", true);
+			profile.setPreference("browser.download.folderList", 2);
+			profile.setPreference("browser.download.manager.showWhenStarting", false);
+			profile.setPreference("browser.download.dir", downloadPath);
+			profile.setPreference("browser.download.useDownloadDir", true);
+			profile.setPreference("browser.helperApps.neverAsk.openFile", DOWNLOAD_MIME_TYPES);
+			profile.setPreference("browser.helperApps.neverAsk.saveToDisk", DOWNLOAD_MIME_TYPES);
+			profile.setPreference("browser.helperApps.alwaysAsk.force", false);
+			profile.setAcceptUntrustedCertificates(true);
+			profile.setAssumeUntrustedCertificateIssuer(false);
+			profile.toJson();
+			template = new FirefoxOptions().setProfile(profile);
+		}
+		else if (browser.equalsIgnoreCase(Browser.IE.toString())) {
+			System.setProperty("webdriver.ie.driver", configLib.getIEDriverPath());
+			DesiredCapabilities capabilities = DesiredCapabilities.internetExplorer();
+			if (incognito) {
+				capabilities.setCapability(InternetExplorerDriver.FORCE_CREATE_PROCESS, true);
+				capabilities.setCapability(InternetExplorerDriver.IE_SWITCHES, "-private");
+			}
+			capabilities.setCapability(InternetExplorerDriver.IE_ENSURE_CLEAN_SESSION, true);
+			capabilities.setCapability(InternetExplorerDriver.INTRODUCE_FLAKINESS_BY_IGNORING_SECURITY_DOMAINS, true);
+			capabilities.setCapability("requireWindowFocus", true);
+			template = capabilities;
+		}
+		else
+			throw new IllegalArgumentException("Invalid browser. Please select either Chrome, Firefox or IE");
+		templates.put(browser.toLowerCase(), template);
+		LoggerFactory.getLogger(BrowserFactory.class).info("Created the capabilities of " + browser + " in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
+		return template;
+	}
+
+	/**
+	 * To log the count, average, standard deviation and range of the launch times
+	 * of each browser type
+	 */
+	public static void logLaunchStatistics() {
+		for (Map.Entry<String, LaunchTime> launchTime : launchTimes.entrySet())
+			LoggerFactory.getLogger(BrowserFactory.class)
+					.info("Browser launch of " + launchTime.getKey() + ": " + launchTime.getValue());
+	}
+
+	/**
+	 * Firefox profile which is zipped and encoded once. Selenium serializes the
+	 * profile every time the capabilities are sent, so the same profile would
+	 * otherwise be zipped by every launch
+	 *
+	 * @note The preferences must not be changed after the first serialization
+	 */
+	private static final class SerializedFirefoxProfile extends FirefoxProfile {
+
+		private String json;
+
+		@Override
+		public synchronized String toJson() throws IOException {
+			if (json == null)
+				json = super.toJson();
+			return json;
+		}
+	}
+
+	/**
+	 * Launch times of a browser type
+	 */
+	private static final class LaunchTime {
+
+		private long count, total, sumOfSquares, min = Long.MAX_VALUE, max;
+
+		synchronized void add(long time) {
+			count++;
+			total += time;
+			sumOfSquares += time * time;
+			min = Math.min(min, time);
+			max = Math.max(max, time);
+		}
+
+		@Override
+		public synchronized String toString() {
+			double average = (double) total / count;
+			double deviation = Math.sqrt(Math.max((double) sumOfSquares / count - average * average, 0));
+			return String.format("count=%d, avg=%.0f ms, stdDev=%.0f ms, min=%d ms, max=%d ms", count, average,
+					deviation, min, max);
 		}
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,595 @@
+package framework.core;
+
+import framework.constants.IFrameworkConstants;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of browser sessions of one browser type shared by the scripts when
+ * ConnectToExisingSession is 1. A script checks out a session with acquire()
+ * and checks it in with release() after the script, so a session is used by
+ * one script at a time. The pool holds at most BrowserPoolSize (ThreadCount by
+ * default) sessions. When all of them are checked out, acquire() waits for a
+ * session to be checked in until the TimeOut in the config. The pool can be
+ * filled in the background with prewarm() during the suite initialization
+ *
+ * @note A session which is checked out by a thread which has ended is leaked.
+ *       It is reclaimed by the next acquire() and logged as a leak
+ * @note A session is relaunched in the background once it is older than
+ *       BrowserMaxAge, has run BrowserMaxIterations scripts or is slower than
+ *       BrowserMaxProbeLatency to answer the health check. The free sessions are
+ *       checked every BrowserHealthCheckInterval seconds by a background thread,
+ *       so a hung browser is replaced before a script checks it out
+ */
+public class BrowserPool implements IFrameworkConstants {
+
+	private static final Map<String, BrowserPool> pools = new ConcurrentHashMap<String, BrowserPool>();
+	private static final long DEFAULT_HEALTH_CHECK_INTERVAL = 60;
+	private static final String PROBE = "return document.readyState";
+	private static ScheduledExecutorService healthCheck;
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final String browser;
+	private final int maxSize;
+	private final Deque<WebDriver> idle = new ArrayDeque<WebDriver>();
+	private final Map<WebDriver, Lease> leases = new HashMap<WebDriver, Lease>();
+	private final Map<WebDriver, Session> sessions = new HashMap<WebDriver, Session>();
+	private final long maxAge = TimeUnit.MINUTES.toMillis(getLimit(configLib.getBrowserMaxAge(), 0));
+	private final long maxIterations = getLimit(configLib.getBrowserMaxIterations(), 0);
+	private final long maxProbeLatency = getLimit(configLib.getBrowserMaxProbeLatency(), 0);
+	private final Launcher launcher;
+	private int size, warming, claimed, recycled;
+	private boolean closed;
+
+	private BrowserPool(String browser, int maxSize, Launcher launcher) {
+		this.browser = browser;
+		this.maxSize = maxSize;
+		this.launcher = launcher;
+	}
+
+	/**
+	 * To get the pool of a browser type
+	 *
+	 * @param strBrowser
+	 *            Browser name i.e. Chrome, Firefox or IE. Chrome is used if it is
+	 *            null
+	 * @return pool Returns the pool which is created on the first call
+	 * @throws IllegalArgumentException
+	 *             if the browser is not supported
+	 */
+	public static BrowserPool getPool(String strBrowser) {
+		String browser = null;
+		if (strBrowser == null)
+			browser = Browser.CHROME.toString();
+		for (Browser supported : Browser.values()) {
+			if (supported.toString().equalsIgnoreCase(strBrowser))
+				browser = supported.toString();
+		}
+		if (browser == null)
+			throw new IllegalArgumentException("Invalid browser. Please select either Chrome, Firefox or IE");
+		BrowserPool pool = pools.computeIfAbsent(browser,
+				name -> new BrowserPool(name, getMaxSize(), () -> new BrowserFactory().openNewBrowser(name)));
+		startHealthCheck();
+		return pool;
+	}
+
+	/**
+	 * To start the background thread which checks the free sessions of all the
+	 * pools every BrowserHealthCheckInterval seconds
+	 */
+	private static synchronized void startHealthCheck() {
+		if (healthCheck != null)
+			return;
+		long interval = getLimit(configLib.getBrowserHealthCheckInterval(), DEFAULT_HEALTH_CHECK_INTERVAL);
+		if (interval <= 0)
+			return;
+		healthCheck = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "Browser Health Check");
+			thread.setDaemon(true);
+			return thread;
+		});
+		healthCheck.scheduleWithFixedDelay(() -> {
+			for (BrowserPool pool : pools.values())
+				pool.checkHealth();
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	private static long getLimit(String value, long defaultValue) {
+		try {
+			return Math.max(Long.parseLong(value.trim()), 0);
+		}
+		catch (Exception e) {
+			return defaultValue;
+		}
+	}
+
+	private static int getMaxSize() {
+		for (String size : new String[] { configLib.getBrowserPoolSize(), configLib.getThreadCountConfig() }) {
+			try {
+				return Math.max(Integer.parseInt(size.trim()), 1);
+			}
+			catch (Exception e) {
+				// Not configured, try the next one
+			}
+		}
+		return 1;
+	}
+
+	/**
+	 * To check out a browser session. A free session is reused, otherwise a new
+	 * browser is launched if the pool is not full, otherwise it waits for a
+	 * session to be checked in until the TimeOut in the config
+	 *
+	 * @return driver Returns the browser driver which is checked out by the
+	 *         current thread
+	 * @throws Exception
+	 *             if the browser can't be launched or no session is free in time
+	 */
+	public WebDriver acquire() throws Exception {
+		long timeOut;
+		try {
+			timeOut = TimeUnit.MINUTES.toMillis(Long.parseLong(configLib.getTimeOut().trim()));
+		}
+		catch (Exception e) {
+			timeOut = Long.MAX_VALUE;
+		}
+		return acquire(timeOut);
+	}
+
+	/**
+	 * To check out a browser session
+	 *
+	 * @param timeOut
+	 *            Maximum time in milliseconds to wait for a free session
+	 * @return driver Returns the browser driver which is checked out by the
+	 *         current thread
+	 * @throws Exception
+	 *             if the browser can't be launched or no session is free in time
+	 */
+	public WebDriver acquire(long timeOut) throws Exception {
+		long deadline = System.currentTimeMillis() + Math.min(timeOut, Long.MAX_VALUE / 2);
+		synchronized (this) {
+			while (true) {
+				WebDriver driver = idle.pollFirst();
+				if (driver != null) {
+					if (!isAlive(driver)) {
+						sessions.remove(driver);
+						size--;
+						logger.debug("Dropped a closed " + browser + " browser from the pool");
+						continue;
+					}
+					String reason = getRecycleReason(getSession(driver));
+					if (reason != null) {
+						recycle(driver, reason);
+						continue;
+					}
+					leases.put(driver, new Lease());
+					logger.info("Connected to existing " + browser + " browser. " + this);
+					return driver;
+				}
+				boolean waitForWarmUp = claimed < warming;
+				if (!waitForWarmUp && size < maxSize) {
+					size++;
+					break;
+				}
+				if (!waitForWarmUp && reclaimLeaks() > 0)
+					continue;
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0)
+					throw new Exception("No " + browser + " browser is free in the pool after waiting " + timeOut
+							+ " ms. Checked out: " + leases.values());
+				if (waitForWarmUp)
+					claimed++;
+				try {
+					wait(remaining);
+				}
+				finally {
+					if (waitForWarmUp)
+						claimed--;
+				}
+			}
+		}
+		WebDriver driver = null;
+		try {
+			driver = launcher.launch();
+		}
+		finally {
+			synchronized (this) {
+				if (driver == null) {
+					size--;
+					notifyAll();
+				}
+				else {
+					sessions.put(driver, new Session());
+					leases.put(driver, new Lease());
+				}
+			}
+		}
+		if (driver == null)
+			throw new Exception("Unable to launch a new " + browser + " browser");
+		logger.info("Added a new " + browser + " browser to the pool. " + this);
+		return driver;
+	}
+
+	/**
+	 * To launch browsers in the background so that the first scripts find them
+	 * ready. A browser is added to the pool as a free session once it is launched.
+	 * A script which asks for a session while they are being launched waits for
+	 * one of them instead of launching another browser
+	 *
+	 * @param count
+	 *            Number of browsers to be launched. It is limited to the room left
+	 *            in the pool
+	 * @return launching Returns the number of browsers being launched
+	 */
+	public int prewarm(int count) {
+		int launching;
+		synchronized (this) {
+			launching = closed ? 0 : Math.max(Math.min(count, maxSize - size), 0);
+			size += launching;
+			warming += launching;
+		}
+		if (launching == 0)
+			return 0;
+		ExecutorService executor = Executors.newFixedThreadPool(launching, runnable -> {
+			Thread thread = new Thread(runnable, browser + " Prewarm");
+			thread.setDaemon(true);
+			return thread;
+		});
+		for (int i = 0; i < launching; i++)
+			executor.execute(this::launchInBackground);
+		executor.shutdown();
+		logger.info("Launching " + launching + " " + browser + " browser(s) in the background");
+		return launching;
+	}
+
+	private void launchInBackground() {
+		long startTime = System.currentTimeMillis();
+		WebDriver driver = null;
+		try {
+			driver = launcher.launch();
+		}
+		catch (Exception e) {
+			logger.error("Unable to launch a " + browser + " browser in the background", e);
+		}
+		finally {
+			boolean added = false;
+			synchronized (this) {
+				warming--;
+				if (!closed) {
+					if (driver == null)
+						size--;
+					else {
+						sessions.put(driver, new Session());
+						idle.addLast(driver);
+						added = true;
+					}
+				}
+				notifyAll();
+			}
+			if (driver != null && !added)
+				driver.quit();
+		}
+		if (driver != null)
+			logger.info("Launched a " + browser + " browser in the background in "
+					+ (System.currentTimeMillis() - startTime) + " ms. " + this);
+	}
+
+	/**
+	 * To check in a browser session after the script so that it can be reused.
+	 * A closed browser is removed from the pool. A browser which has reached its
+	 * age or iteration limit is relaunched in the background
+	 *
+	 * @param driver
+	 *            Browser driver checked out by acquire()
+	 */
+	public synchronized void release(WebDriver driver) {
+		if (leases.remove(driver) == null) {
+			logger.warn("The " + browser + " browser is not checked out from the pool. Ignoring the check in");
+			return;
+		}
+		Session session = getSession(driver);
+		session.iterations++;
+		String reason;
+		if (!isAlive(driver)) {
+			sessions.remove(driver);
+			size--;
+		}
+		else if ((reason = getRecycleReason(session)) != null)
+			recycle(driver, reason);
+		else
+			idle.addFirst(driver);
+		notifyAll();
+	}
+
+	/**
+	 * @return Returns true if the session has not been used by a script since it
+	 *         was launched
+	 */
+	public synchronized boolean isNew(WebDriver driver) {
+		Session session = sessions.get(driver);
+		return session != null && session.iterations == 0;
+	}
+
+	/**
+	 * To remove a browser session from the pool e.g. before it is closed. The
+	 * browser is not closed
+	 *
+	 * @param driver
+	 *            Browser driver
+	 * @return removed Returns true if the browser was in the pool
+	 */
+	public synchronized boolean discard(WebDriver driver) {
+		boolean removed = leases.remove(driver) != null || idle.remove(driver);
+		if (removed) {
+			sessions.remove(driver);
+			size--;
+			notifyAll();
+		}
+		return removed;
+	}
+
+	/**
+	 * To remove a browser session from the pool which holds it e.g. before it is
+	 * closed. The browser is not closed
+	 *
+	 * @param driver
+	 *            Browser driver
+	 * @return removed Returns true if the browser was in a pool
+	 */
+	public static boolean discardFromAll(WebDriver driver) {
+		for (BrowserPool pool : pools.values()) {
+			if (pool.discard(driver))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * To check the free sessions one at a time. A session is taken out of the
+	 * pool while its browser is probed, so a script never waits for the probe of
+	 * another session. A session which has reached its limits, doesn't respond or
+	 * is slower than BrowserMaxProbeLatency is relaunched in the background
+	 */
+	private void checkHealth() {
+		List<WebDriver> drivers;
+		synchronized (this) {
+			drivers = new ArrayList<WebDriver>(idle);
+		}
+		for (WebDriver driver : drivers) {
+			Session session;
+			synchronized (this) {
+				if (closed || !idle.remove(driver))
+					continue;
+				session = getSession(driver);
+			}
+			String reason = getRecycleReason(session);
+			if (reason == null)
+				reason = probe(driver, session);
+			boolean closeDriver = false;
+			synchronized (this) {
+				if (closed)
+					closeDriver = true;
+				else if (reason == null)
+					idle.addLast(driver);
+				else
+					recycle(driver, reason);
+				notifyAll();
+			}
+			if (closeDriver)
+				quit(driver);
+		}
+	}
+
+	/**
+	 * To measure the time taken by the browser to run a trivial script
+	 *
+	 * @return reason Returns why the session should be relaunched or null if it is
+	 *         healthy
+	 */
+	private String probe(WebDriver driver, Session session) {
+		long startTime = System.nanoTime();
+		try {
+			((JavascriptExecutor) driver).executeScript(PROBE);
+		}
+		catch (Exception e) {
+			return "as it doesn't respond to the health check (" + e.getClass().getSimpleName() + ")";
+		}
+		session.probeLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+		if (maxProbeLatency > 0 && session.probeLatency > maxProbeLatency)
+			return "as it took " + session.probeLatency + " ms to respond to the health check";
+		return null;
+	}
+
+	/**
+	 * @return reason Returns why the session should be relaunched or null if it is
+	 *         within the age and iteration limits
+	 */
+	private String getRecycleReason(Session session) {
+		if (maxIterations > 0 && session.iterations >= maxIterations)
+			return "after " + session.iterations + " iterations";
+		if (maxAge > 0 && session.getAge() >= maxAge)
+			return "after " + TimeUnit.MILLISECONDS.toMinutes(session.getAge()) + " minutes";
+		return null;
+	}
+
+	private Session getSession(WebDriver driver) {
+		return sessions.computeIfAbsent(driver, key -> new Session());
+	}
+
+	/**
+	 * To remove a session from the pool, close its browser and launch a
+	 * replacement in the background. It is called with the lock of the pool held,
+	 * so the browser is closed off the calling thread
+	 */
+	private void recycle(WebDriver driver, String reason) {
+		Session session = sessions.remove(driver);
+		size--;
+		recycled++;
+		logger.info("Relaunching a " + browser + " browser " + reason + ". " + session);
+		Thread thread = new Thread(() -> {
+			quit(driver);
+			prewarm(1);
+		}, browser + " Recycle");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void quit(WebDriver driver) {
+		try {
+			driver.quit();
+		}
+		catch (Exception e) {
+			logger.debug("There is no browser driver to close");
+		}
+	}
+
+	/**
+	 * To check in the sessions checked out by threads which have ended
+	 *
+	 * @return reclaimed Returns the number of sessions checked in
+	 */
+	private int reclaimLeaks() {
+		List<WebDriver> leaked = new ArrayList<WebDriver>();
+		for (Map.Entry<WebDriver, Lease> lease : leases.entrySet()) {
+			if (!lease.getValue().owner.isAlive()) {
+				logger.error("Reclaimed a leaked " + browser + " browser " + lease.getValue());
+				leaked.add(lease.getKey());
+			}
+		}
+		for (WebDriver driver : leaked)
+			release(driver);
+		return leaked.size();
+	}
+
+	/**
+	 * To find the sessions which may have leaked
+	 *
+	 * @param maxHoldTime
+	 *            Time in milliseconds
+	 * @return leaks Returns a description of the sessions which are checked out
+	 *         for longer than maxHoldTime
+	 */
+	public synchronized List<String> getLeaks(long maxHoldTime) {
+		List<String> leaks = new ArrayList<String>();
+		for (Lease lease : leases.values()) {
+			if (lease.getHoldTime() >= maxHoldTime)
+				leaks.add(lease.toString());
+		}
+		return leaks;
+	}
+
+	/**
+	 * To close all the browsers of the pool. The browsers which are still checked
+	 * out are logged as leaks and closed
+	 */
+	public void close() {
+		List<WebDriver> drivers;
+		synchronized (this) {
+			for (Lease lease : leases.values())
+				logger.warn("The " + browser + " browser was not checked in " + lease);
+			drivers = new ArrayList<WebDriver>(idle);
+			drivers.addAll(leases.keySet());
+			idle.clear();
+			leases.clear();
+			sessions.clear();
+			size = 0;
+			closed = true;
+			notifyAll();
+		}
+		for (WebDriver driver : drivers)
+			quit(driver);
+		logger.info("Closed " + drivers.size() + " " + browser + " browser(s) of the pool. Relaunched " + recycled
+				+ " browser(s) during the suite");
+	}
+
+	/**
+	 * To stop the health check and close all the browsers of all the pools
+	 */
+	public static void closeAll() {
+		synchronized (BrowserPool.class) {
+			if (healthCheck != null) {
+				healthCheck.shutdownNow();
+				healthCheck = null;
+			}
+		}
+		for (BrowserPool pool : pools.values())
+			pool.close();
+	}
+
+	/**
+	 * @return Returns false if the browser session is closed
+	 */
+	public static boolean isAlive(WebDriver driver) {
+		return driver != null && !driver.toString().contains("(null)");
+	}
+
+	@Override
+	public synchronized String toString() {
+		return browser + " pool: size=" + size + "/" + maxSize + ", free=" + idle.size() + ", checkedOut="
+				+ leases.size() + ", relaunched=" + recycled;
+	}
+
+	/**
+	 * Launches a new browser for the pool. It must not hold the state of a script
+	 * as it is also called by the background threads of the pool
+	 */
+	@FunctionalInterface
+	public interface Launcher {
+
+		WebDriver launch() throws Exception;
+	}
+
+	/**
+	 * Age, number of scripts run and last health check response time of a session
+	 */
+	private static final class Session {
+
+		private final long startTime = System.currentTimeMillis();
+		private int iterations;
+		private volatile long probeLatency = -1;
+
+		long getAge() {
+			return System.currentTimeMillis() - startTime;
+		}
+
+		@Override
+		public String toString() {
+			return "Age: " + TimeUnit.MILLISECONDS.toSeconds(getAge()) + " s, iterations: " + iterations
+					+ ", last health check: " + (probeLatency < 0 ? "none" : probeLatency + " ms");
+		}
+	}
+
+	/**
+	 * Thread which checked out a session and when
+	 */
+	private static final class Lease {
+
+		private final Thread owner = Thread.currentThread();
+		private final long startTime = System.currentTimeMillis();
+
+		long getHoldTime() {
+			return System.currentTimeMillis() - startTime;
+		}
+
+		@Override
+		public String toString() {
+			return "by " + owner.getName() + " for " + TimeUnit.MILLISECONDS.toSeconds(getHoldTime()) + " s";
+		}
+	}
+}
@@ -11,15 +11,19 @@ import org.testng.annotations.BeforeSuite;
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 
+import driver.AnnotationTransformerImpl;
 import driver.TestngDriver;
 import framework.constants.ITestdataEnums;
 import framework.libraryinit.PageFactory;
+import framework.utilities.ActionTimingLib;
 import framework.utilities.CommonUtilLib;
 import framework.utilities.ConfigurationLib;
+import framework.utilities.ElementCache;
 import framework.utilities.ExcelLib;
 import framework.utilities.FileSystemLib;
 import framework.utilities.MonitorSystem;
 import framework.utilities.ReportLib;
+import framework.utilities.WaitLib;
 
 public abstract class SetUpTearDownScript implements ITestdataEnums {
 
@@ -57,6 +61,20 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 			logger.info("Started suite execution");
 
 			utilLib.killBrowserDriverProcess();
+			if (AnnotationTransformerImpl.isTestDataLoaded()) {
+				testData = AnnotationTransformerImpl.getTestData();
+				logger.info("Discovered " + AnnotationTransformerImpl.getNumOfScriptsDiscovered() + " script(s) in "
+						+ AnnotationTransformerImpl.getDiscoveryTime() + " ms");
+			}
+			else
+				testData.connectToExcel(configLib.getTestDataPath());
+			if (TestngDriver.suiteExec == true)
+				totalNumOfScriptsToBeExec = testData.searchText(Sheetname.TEST_MAP.toString(),
+						Testmap.EXECUTE.toString(), Flag.YES.toString());
+			createBrowserPool = configLib.getConnectToExistingSessionConfig();
+			if (createBrowserPool.equalsIgnoreCase("1"))
+				new BrowserFactory().prewarmBrowserPool(testData);
+
 			if (configLib.getRewriteExistingReportConfig().equals("0")) {
 				StringBuilder fileName = new StringBuilder(configLib.getReportFileName());
 				fileName.insert(fileName.indexOf("."), "_" + utilLib.createTimeStamp());
@@ -73,17 +91,12 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 			fileSystem.createCleanFolder(configLib.getReportPath(), configLib.getClearReportFolderConfig().equals("1"));
 
 			report.reportConfig(extent, htmlReporter);
-			testData.connectToExcel(configLib.getTestDataPath());
-			if (TestngDriver.suiteExec == true)
-				totalNumOfScriptsToBeExec = testData.searchText(Sheetname.TEST_MAP.toString(),
-						Testmap.EXECUTE.toString(), Flag.YES.toString());
 
 			if (configLib.getSystemMonitor().equals("1")) {
 				sysMonitor = true;
 				tSysMonitor = new Thread(new MonitorSystem());
 				tSysMonitor.start();
 			}
-			createBrowserPool = configLib.getConnectToExistingSessionConfig();
 
 			logger.info("Suite Initialization - Done");
 		}
@@ -103,6 +116,7 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 		String testCase, testCaseDescription;
 		scriptName = this.getClass().getSimpleName();
 		iteration = iteration + 1;
+		ActionTimingLib.setScript(scriptName);
 		Thread.currentThread().setName(scriptName + " | " + iteration + " - Thread " + Thread.currentThread().getId());
 		bs = new PageFactory();
 		bs.testData = testData;
@@ -142,30 +156,17 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 					logger.debug("There is no browser open");
 				else if (bs.isTestSkipped)
 					logger.debug("Current test is skipped");
-				else if (bs.driver.toString().contains("(null)")) {
+				else if (!BrowserPool.isAlive(bs.driver)) {
 					strBrowser = (String) bs.testData.getCellData(Sheetname.TEST_DATA.toString(), bs.scriptName,
 							bs.iteration, Testdata.BROWSER.toString(), false);
-					if (strBrowser == null || strBrowser.equals(Browser.CHROME.toString()))
-						chromePool.remove(bs.driver);
-					else if (strBrowser.equals(Browser.FIREFOX.toString()))
-						firefoxPool.remove(bs.driver);
-					else if (strBrowser.equals(Browser.IE.toString()))
-						iePool.remove(bs.driver);
+					BrowserPool.getPool(strBrowser).discard(bs.driver);
 					logger.error("****************************************** Script Failed: " + bs.scriptName
 							+ " | Iteration: " + bs.iteration + " ******************************************");
 				}
-				else if (!bs.driver.toString().contains("(null)")) {
+				else {
 					strBrowser = (String) bs.testData.getCellData(Sheetname.TEST_DATA.toString(), bs.scriptName,
 							bs.iteration, Testdata.BROWSER.toString(), false);
-					if (strBrowser == null || strBrowser.equals(Browser.CHROME.toString())) {
-						chromePool.put(bs.driver, 0);
-					}
-					else if (strBrowser.equals(Browser.FIREFOX.toString())) {
-						firefoxPool.put(bs.driver, 0);
-					}
-					else if (strBrowser.equals(Browser.IE.toString())) {
-						iePool.put(bs.driver, 0);
-					}
+					BrowserPool.getPool(strBrowser).release(bs.driver);
 					logger.info(
 							"****************************************** Successfully executed Script: " + bs.scriptName
 									+ " | Iteration: " + bs.iteration + " ******************************************");
@@ -178,6 +179,8 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 				bs.ui.closeBrowser(bs.driver, browser, true);
 				bs.report.updateCurrentExecutionStatus();
 			}
+			bs.excelReport.flush();
+			bs.excelReport.closeReport();
 			if (configLib.getThreadCountConfig().equalsIgnoreCase("1")) {
 				if (TestngDriver.suiteExec == true) {
 					if (testScriptNo == totalNumOfScriptsToBeExec)
@@ -200,9 +203,7 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 			String recipients;
 			String browser = (String) bs.testData.getCellData(Sheetname.TEST_DATA.toString(), bs.scriptName,
 					bs.iteration, Testdata.BROWSER.toString(), false);
-			bs.ui.closeBrowser(chromePool);
-			bs.ui.closeBrowser(firefoxPool);
-			bs.ui.closeBrowser(iePool);
+			BrowserPool.closeAll();
 			bs.ui.closeBrowser(bs.driver, browser, true);
 
 			if ((configLib.getRecipients()).trim().isEmpty())
@@ -213,6 +214,16 @@ public abstract class SetUpTearDownScript implements ITestdataEnums {
 			if (configLib.getSystemMonitor().equals("1"))
 				sysMonitor = false;
 
+			testData.flush();
+			testData.closeReport();
+			WaitLib.logHistograms();
+			WaitLib.reportSleepAudit(configLib.getReportPath() + "SleepAudit.csv");
+			ElementCache.logStatistics();
+			BrowserFactory.logResetStatistics();
+			BrowserFactory.logLaunchStatistics();
+			ActionTimingLib.report(extent, configLib.getReportPath() + "ActionTimings.json");
+			extent.flush();
+
 			if (configLib.getSendMailAfterSuiteExec().equalsIgnoreCase("1"))
 				bs.email.sendMail(recipients, configLib.getSubject(),
 						"PFA the automation execution report, log, and screenshot(s).", null, true);
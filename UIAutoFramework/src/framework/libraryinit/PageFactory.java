@@ -38,15 +38,16 @@ public class PageFactory implements IFrameworkConstants {
 
 		configLib = new ConfigurationLib();
 		property = new PropertiesLib();
-		prpOR = property.readProperties(configLib.getORPath());
-		prpSQL = property.readProperties(configLib.getSQLPath());
-		prpMsg = property.readProperties(configLib.getPopUpMessagePath());
+		ObjectRepository repository = ObjectRepository.getShared();
+		prpOR = repository.newObjectsOverlay();
+		prpSQL = repository.newQueriesOverlay();
+		prpMsg = repository.newMessagesOverlay();
 		fileSystem = new FileSystemLib();
 		csv = new CSVLib();
 		utilLib = new CommonUtilLib();
 		db = new DatabaseLib();
 		email = new MailLib();
-		ui = new UIActionsLib(prpOR);
+		ui = new UIActionsLib(prpOR, repository.getLocators());
 		report = new ReportLib(bs);
 		assertLib = new AssertionLib(bs);
 		excelReport = new ExcelLib();
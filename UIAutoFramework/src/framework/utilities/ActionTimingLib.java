@@ -0,0 +1,349 @@
+/* ActionTimingLib records the time taken by every UI action, split in to locate, wait and execute
+ * Guideline: This is used by UIActionsLib and the wait classes. Call report() at the end of the suite.
+ */
+
+package framework.utilities;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.google.gson.GsonBuilder;
+import framework.constants.IFrameworkConstants.ActionPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This class times the actions of UIActionsLib with System.nanoTime(). Every
+ * thread records in to its own recorder, so recording an action takes no lock
+ * and doesn't contend with the other threads. An action is timed from begin()
+ * to end() and its time is split in to the phases locate (finding the
+ * element), wait (waiting for the page or the element) and execute (the rest).
+ * The phases don't overlap i.e. the time spent finding an element while waiting
+ * for it is counted as locate. An action called by another action is part of
+ * the outer action and is not recorded separately
+ *
+ * @note The recorders of all the threads are merged by report() at the end of
+ *       the suite, once the scripts are executed
+ */
+public class ActionTimingLib {
+
+	private static final int NUM_OF_ELEMENTS_IN_REPORT = 25;
+
+	private static final List<Recorder> recorders = new CopyOnWriteArrayList<Recorder>();
+	private static final ThreadLocal<Recorder> recorder = ThreadLocal.withInitial(() -> {
+		Recorder threadRecorder = new Recorder();
+		recorders.add(threadRecorder);
+		return threadRecorder;
+	});
+
+	/**
+	 * To set the script whose actions are executed by the current thread
+	 *
+	 * @param script Script name
+	 */
+	public static void setScript(String script) {
+		recorder.get().script = script;
+	}
+
+	/**
+	 * To start timing an action. Every call must be followed by end() in a finally
+	 * block
+	 *
+	 * @param action Action name e.g. click
+	 * @param ele    Element name in the object repository (OR). Pass null if the
+	 *               action is not on an element
+	 */
+	public static void begin(String action, String ele) {
+		recorder.get().begin(action, ele);
+	}
+
+	/**
+	 * To stop timing the action started by the last begin()
+	 */
+	public static void end() {
+		recorder.get().end();
+	}
+
+	/**
+	 * To charge the time from now on to a phase of the current action. Every call
+	 * must be followed by exit() in a finally block
+	 *
+	 * @param phase Phase e.g. ActionPhase.LOCATE
+	 * @return previous Returns the phase to be passed to exit(). Returns null if
+	 *         no action is being timed
+	 */
+	public static ActionPhase enter(ActionPhase phase) {
+		return recorder.get().enter(phase);
+	}
+
+	/**
+	 * To charge the time from now on to the phase before enter()
+	 *
+	 * @param previous Phase returned by enter()
+	 */
+	public static void exit(ActionPhase previous) {
+		recorder.get().exit(previous);
+	}
+
+	/**
+	 * To get the timings of all the actions recorded so far
+	 *
+	 * @return timings Returns a map of [script, action, element] to the timing of
+	 *         the action
+	 */
+	public static Map<List<String>, Timing> getTimings() {
+		Map<List<String>, Timing> timings = new HashMap<List<String>, Timing>();
+		for (Recorder threadRecorder : recorders) {
+			for (Map.Entry<Key, Timing> timing : threadRecorder.timings.entrySet()) {
+				Key key = timing.getKey();
+				timings.computeIfAbsent(Arrays.asList(key.script, key.action, key.ele), k -> new Timing())
+						.add(timing.getValue());
+			}
+		}
+		return timings;
+	}
+
+	/**
+	 * To report the time taken by the actions per script, per action and per
+	 * element. The report is logged, added to the extent report as a test and
+	 * written to a json file
+	 *
+	 * @param extent   Extent report of the suite. Pass null to skip it
+	 * @param filePath Path of the json file to be written
+	 */
+	public static void report(ExtentReports extent, String filePath) {
+		Logger logger = LoggerFactory.getLogger(ActionTimingLib.class);
+		Map<List<String>, Timing> actions = getTimings();
+		Map<String, Timing> scripts = new HashMap<String, Timing>(), elements = new HashMap<String, Timing>();
+		for (Map.Entry<List<String>, Timing> action : actions.entrySet()) {
+			List<String> key = action.getKey();
+			scripts.computeIfAbsent(key.get(0), k -> new Timing()).add(action.getValue());
+			if (key.get(2) != null)
+				elements.computeIfAbsent(key.get(2), k -> new Timing()).add(action.getValue());
+		}
+
+		List<Map<String, Object>> scriptRows = new ArrayList<Map<String, Object>>();
+		for (Map.Entry<String, Timing> script : sort(scripts)) {
+			Map<String, Object> row = new LinkedHashMap<String, Object>();
+			row.put("script", script.getKey());
+			scriptRows.add(script.getValue().toMap(row));
+			logger.info("Action timing of " + script.getKey() + ": " + script.getValue());
+		}
+		List<Map<String, Object>> elementRows = new ArrayList<Map<String, Object>>();
+		for (Map.Entry<String, Timing> element : sort(elements)) {
+			Map<String, Object> row = new LinkedHashMap<String, Object>();
+			row.put("element", element.getKey());
+			elementRows.add(element.getValue().toMap(row));
+		}
+		List<Map<String, Object>> actionRows = new ArrayList<Map<String, Object>>();
+		for (Map.Entry<List<String>, Timing> action : sort(actions)) {
+			Map<String, Object> row = new LinkedHashMap<String, Object>();
+			row.put("script", action.getKey().get(0));
+			row.put("action", action.getKey().get(1));
+			row.put("element", action.getKey().get(2));
+			actionRows.add(action.getValue().toMap(row));
+		}
+
+		Map<String, Object> json = new LinkedHashMap<String, Object>();
+		json.put("scripts", scriptRows);
+		json.put("elements", elementRows);
+		json.put("actions", actionRows);
+		try {
+			Files.write(Paths.get(filePath),
+					new GsonBuilder().setPrettyPrinting().create().toJson(json).getBytes(StandardCharsets.UTF_8));
+			logger.info("Wrote the action timings to " + filePath);
+		} catch (Exception e) {
+			logger.error("Unable to write the action timings to " + filePath, e);
+		}
+
+		if (extent != null && !actionRows.isEmpty()) {
+			ExtentTest test = extent.createTest("Action Timings",
+					"Time taken by the UI actions in milliseconds. All the actions are in " + filePath);
+			test.info(MarkupHelper.createTable(toTable(scriptRows, "script", scriptRows.size())));
+			test.info(MarkupHelper.createTable(toTable(elementRows, "element", NUM_OF_ELEMENTS_IN_REPORT)));
+		}
+	}
+
+	private static <K> List<Map.Entry<K, Timing>> sort(Map<K, Timing> timings) {
+		List<Map.Entry<K, Timing>> entries = new ArrayList<Map.Entry<K, Timing>>(timings.entrySet());
+		entries.sort((first, second) -> Long.compare(second.getValue().latency.getTotalTime(),
+				first.getValue().latency.getTotalTime()));
+		return entries;
+	}
+
+	private static String[][] toTable(List<Map<String, Object>> rows, String name, int maxRows) {
+		String[] columns = { name, "count", "totalMs", "locateMs", "waitMs", "executeMs", "p90Ms", "maxMs" };
+		int numOfRows = Math.min(rows.size(), maxRows);
+		String[][] table = new String[numOfRows + 1][];
+		table[0] = columns;
+		for (int i = 0; i < numOfRows; i++) {
+			table[i + 1] = new String[columns.length];
+			for (int j = 0; j < columns.length; j++)
+				table[i + 1][j] = String.valueOf(rows.get(i).get(columns[j]));
+		}
+		return table;
+	}
+
+	/**
+	 * Recorder of a thread. It is written only by its own thread
+	 */
+	private static final class Recorder {
+
+		private final Map<Key, Timing> timings = new ConcurrentHashMap<Key, Timing>();
+		private final long[] phaseTimes = new long[ActionPhase.values().length];
+
+		private String script = "Unknown";
+		private String action, ele;
+		private int depth;
+		private ActionPhase phase;
+		private long startTime, phaseStartTime;
+
+		void begin(String action, String ele) {
+			if (depth++ > 0)
+				return;
+			this.action = action;
+			this.ele = ele;
+			phase = ActionPhase.EXECUTE;
+			startTime = phaseStartTime = System.nanoTime();
+		}
+
+		void end() {
+			if (depth == 0 || --depth > 0)
+				return;
+			long now = System.nanoTime();
+			phaseTimes[phase.ordinal()] += now - phaseStartTime;
+			timings.computeIfAbsent(new Key(script, action, ele), key -> new Timing()).record(now - startTime,
+					phaseTimes);
+			Arrays.fill(phaseTimes, 0);
+		}
+
+		ActionPhase enter(ActionPhase next) {
+			if (depth == 0)
+				return null;
+			ActionPhase previous = phase;
+			switchTo(next);
+			return previous;
+		}
+
+		void exit(ActionPhase previous) {
+			if (depth > 0 && previous != null)
+				switchTo(previous);
+		}
+
+		private void switchTo(ActionPhase next) {
+			long now = System.nanoTime();
+			phaseTimes[phase.ordinal()] += now - phaseStartTime;
+			phaseStartTime = now;
+			phase = next;
+		}
+	}
+
+	private static final class Key {
+
+		private final String script, action, ele;
+		private final int hashCode;
+
+		Key(String script, String action, String ele) {
+			this.script = script;
+			this.action = action;
+			this.ele = ele;
+			this.hashCode = Objects.hash(script, action, ele);
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+			Key key = (Key) other;
+			return Objects.equals(script, key.script) && Objects.equals(action, key.action)
+					&& Objects.equals(ele, key.ele);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	/**
+	 * Time taken by an action with its latency histogram and the time spent in
+	 * each phase
+	 */
+	public static class Timing {
+
+		private final LatencyHistogram latency = new LatencyHistogram();
+		private final long[] phaseTimes = new long[ActionPhase.values().length];
+
+		void record(long timeTaken, long[] phaseTime) {
+			latency.record(timeTaken);
+			for (int i = 0; i < phaseTimes.length; i++)
+				phaseTimes[i] += phaseTime[i];
+		}
+
+		void add(Timing other) {
+			latency.add(other.latency);
+			for (int i = 0; i < phaseTimes.length; i++)
+				phaseTimes[i] += other.phaseTimes[i];
+		}
+
+		public long getCount() {
+			return latency.getCount();
+		}
+
+		/**
+		 * @return Returns the total time in milliseconds
+		 */
+		public double getTotalTime() {
+			return LatencyHistogram.toMillis(latency.getTotalTime());
+		}
+
+		/**
+		 * @param phase Phase e.g. ActionPhase.WAIT
+		 * @return Returns the time in milliseconds spent in the phase
+		 */
+		public double getPhaseTime(ActionPhase phase) {
+			return LatencyHistogram.toMillis(phaseTimes[phase.ordinal()]);
+		}
+
+		/**
+		 * @return Returns the latency histogram of the action
+		 */
+		public LatencyHistogram getLatency() {
+			return latency;
+		}
+
+		Map<String, Object> toMap(Map<String, Object> row) {
+			row.put("count", getCount());
+			row.put("totalMs", getTotalTime());
+			for (ActionPhase phase : ActionPhase.values())
+				row.put(phase + "Ms", getPhaseTime(phase));
+			row.put("avgMs", latency.getAverage());
+			row.put("p50Ms", latency.getPercentile(50));
+			row.put("p90Ms", latency.getPercentile(90));
+			row.put("p99Ms", latency.getPercentile(99));
+			row.put("maxMs", latency.getMax());
+			return row;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + getCount() + ", total=" + getTotalTime() + " ms, locate="
+					+ getPhaseTime(ActionPhase.LOCATE) + " ms, wait=" + getPhaseTime(ActionPhase.WAIT)
+					+ " ms, execute=" + getPhaseTime(ActionPhase.EXECUTE) + " ms, p90<=" + latency.getPercentile(90)
+					+ " ms";
+		}
+	}
+}
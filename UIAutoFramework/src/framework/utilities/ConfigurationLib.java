@@ -132,6 +132,25 @@ public class ConfigurationLib implements IFrameworkConstants {
 		return getPropertyValue(ConfigKeyWords.IS_CIS.toString());
 	}
 
+	/**
+	 * To get the test data cache configuration
+	 *
+	 * @return TestDataCache
+	 */
+	public String getTestDataCacheConfig() {
+		return getPropertyValue(ConfigKeyWords.TEST_DATA_CACHE.toString());
+	}
+
+	/**
+	 * To get the interval in seconds at which the test data written by the
+	 * scripts is saved to the excel
+	 *
+	 * @return TestDataFlushInterval
+	 */
+	public String getTestDataFlushInterval() {
+		return getPropertyValue(ConfigKeyWords.TEST_DATA_FLUSH_INTERVAL.toString());
+	}
+
 	/**
 	 * To get the connect to existing session configuration
 	 *
@@ -150,6 +169,62 @@ public class ConfigurationLib implements IFrameworkConstants {
 		return getPropertyValue(ConfigKeyWords.THREAD_COUNT.toString());
 	}
 
+	/**
+	 * To get the maximum number of browsers of a type in the browser pool
+	 *
+	 * @return BrowserPoolSize
+	 */
+	public String getBrowserPoolSize() {
+		return getPropertyValue(ConfigKeyWords.BROWSER_POOL_SIZE.toString());
+	}
+
+	/**
+	 * To get the soft reset configuration of the reused browser sessions
+	 *
+	 * @return SoftReset
+	 */
+	public String getSoftResetConfig() {
+		return getPropertyValue(ConfigKeyWords.SOFT_RESET.toString());
+	}
+
+	/**
+	 * To get the age in minutes after which a pooled browser is relaunched
+	 *
+	 * @return BrowserMaxAge
+	 */
+	public String getBrowserMaxAge() {
+		return getPropertyValue(ConfigKeyWords.BROWSER_MAX_AGE.toString());
+	}
+
+	/**
+	 * To get the number of iterations after which a pooled browser is relaunched
+	 *
+	 * @return BrowserMaxIterations
+	 */
+	public String getBrowserMaxIterations() {
+		return getPropertyValue(ConfigKeyWords.BROWSER_MAX_ITERATIONS.toString());
+	}
+
+	/**
+	 * To get the response time in milliseconds of the health check above which a
+	 * pooled browser is relaunched
+	 *
+	 * @return BrowserMaxProbeLatency
+	 */
+	public String getBrowserMaxProbeLatency() {
+		return getPropertyValue(ConfigKeyWords.BROWSER_MAX_PROBE_LATENCY.toString());
+	}
+
+	/**
+	 * To get the interval in seconds between the health checks of the pooled
+	 * browsers
+	 *
+	 * @return BrowserHealthCheckInterval
+	 */
+	public String getBrowserHealthCheckInterval() {
+		return getPropertyValue(ConfigKeyWords.BROWSER_HEALTH_CHECK_INTERVAL.toString());
+	}
+
 	/**
 	 * To get the incognito mode configuration
 	 *
@@ -0,0 +1,173 @@
+/* ElementCache keeps the web elements found by UIActionsLib so that they are not found again for every action
+ * Guideline: This is used by UIActionsLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import framework.constants.IFrameworkConstants.ActionPhase;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class caches the web elements per driver and per page (document), keyed
+ * by the element name in the object repository (OR). A cached element is
+ * reused by the next action on the same element and is dropped when the
+ * browser has navigated to another document, when the locator of the element
+ * is changed or when the element turns out to be stale, in which case it is
+ * found again and the action is retried once. A cached element is also dropped
+ * when the action on it returns false or fails, so that a poll finds the
+ * element again on the next attempt, e.g. when a hidden element has been
+ * replaced by a new one which matches the locator
+ *
+ * @note The hits, misses and stale elements of all the caches are counted
+ */
+public class ElementCache {
+
+	private static final LongAdder hits = new LongAdder(), misses = new LongAdder(), stale = new LongAdder();
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Map<WebDriver, Page> pages = new WeakHashMap<WebDriver, Page>();
+
+	/**
+	 * To perform an action on an element using the cached element
+	 *
+	 * @param driver     Browser driver object
+	 * @param ele        Element name in the OR
+	 * @param locator    Locator of the element
+	 * @param documentId Id of the document currently loaded in the browser
+	 * @param action     Action to be performed on the element
+	 * @return Returns the value returned by the action
+	 * @throws Exception thrown by the action or if the element is not found
+	 */
+	public <T> T apply(WebDriver driver, String ele, By locator, String documentId, Action<T> action)
+			throws Exception {
+		WebElement element = get(driver, ele, locator, documentId);
+		boolean cached = element != null;
+		if (!cached)
+			element = find(driver, ele, locator, documentId);
+		T result;
+		try {
+			try {
+				result = action.apply(element);
+			} catch (StaleElementReferenceException e) {
+				if (!cached)
+					throw e;
+				stale.increment();
+				logger.debug(ele + " is stale. Finding it again");
+				element = find(driver, ele, locator, documentId);
+				result = action.apply(element);
+			}
+		} catch (Exception e) {
+			evict(driver, ele, element);
+			throw e;
+		}
+		if (Boolean.FALSE.equals(result))
+			evict(driver, ele, element);
+		return result;
+	}
+
+	private synchronized void evict(WebDriver driver, String ele, WebElement element) {
+		Page page = pages.get(driver);
+		if (page != null) {
+			Entry entry = page.elements.get(ele);
+			if (entry != null && entry.element == element)
+				page.elements.remove(ele);
+		}
+	}
+
+	private synchronized WebElement get(WebDriver driver, String ele, By locator, String documentId) {
+		Page page = pages.get(driver);
+		if (page != null && Objects.equals(page.documentId, documentId)) {
+			Entry entry = page.elements.get(ele);
+			if (entry != null && entry.locator == locator) {
+				hits.increment();
+				return entry.element;
+			}
+		}
+		misses.increment();
+		return null;
+	}
+
+	private WebElement find(WebDriver driver, String ele, By locator, String documentId) {
+		WebElement element;
+		ActionPhase previousPhase = ActionTimingLib.enter(ActionPhase.LOCATE);
+		try {
+			element = driver.findElement(locator);
+		} finally {
+			ActionTimingLib.exit(previousPhase);
+		}
+		synchronized (this) {
+			Page page = pages.get(driver);
+			if (page == null || !Objects.equals(page.documentId, documentId)) {
+				page = new Page(documentId);
+				pages.put(driver, page);
+			}
+			page.elements.put(ele, new Entry(locator, element));
+		}
+		return element;
+	}
+
+	public static long getHits() {
+		return hits.sum();
+	}
+
+	public static long getMisses() {
+		return misses.sum();
+	}
+
+	public static long getStaleCount() {
+		return stale.sum();
+	}
+
+	/**
+	 * To log the hits, misses and stale elements of all the caches
+	 */
+	public static void logStatistics() {
+		LoggerFactory.getLogger(ElementCache.class).info("Element cache: hits=" + getHits() + ", misses="
+				+ getMisses() + ", stale=" + getStaleCount());
+	}
+
+	/**
+	 * An action performed on an element
+	 */
+	@FunctionalInterface
+	public interface Action<T> {
+
+		T apply(WebElement element) throws Exception;
+	}
+
+	/**
+	 * Elements found in a document
+	 */
+	private static final class Page {
+
+		private final String documentId;
+		private final Map<String, Entry> elements = new HashMap<String, Entry>();
+
+		Page(String documentId) {
+			this.documentId = documentId;
+		}
+	}
+
+	private static final class Entry {
+
+		private final By locator;
+		private final WebElement element;
+
+		Entry(By locator, WebElement element) {
+			this.locator = locator;
+			this.element = element;
+		}
+	}
+}
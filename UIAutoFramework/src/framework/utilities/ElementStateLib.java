@@ -0,0 +1,162 @@
+/* ElementStateLib reads the state of many elements in a single script execution
+ * Guideline: This is used by UIActionsLib.getElementStates(). Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This class finds a set of elements of the object repository (OR) and reads
+ * their states (ElementState) and attributes in the browser with one
+ * executeScript call, so verifying a page of fields costs one round trip to the
+ * driver instead of a few per field. The elements are found and the states are
+ * computed by javascript, which follows the WebDriver semantics closely but not
+ * exactly e.g. displayed means the element is rendered, not hidden and not
+ * transparent
+ *
+ * @note The first element matching the locator is used. An element pinned by
+ *       UIActionsLib.findUniqueElement() is not honoured
+ */
+public class ElementStateLib {
+
+	/**
+	 * Javascript functions to find the first element matching an OR locator and
+	 * to check if an element is displayed. The locator type is as returned by
+	 * LocatorCache.split()
+	 */
+	static final String FIND_ELEMENT = "function find(type, value) {"
+			+ "  if (type == 'id') return document.getElementById(value);"
+			+ "  if (type == 'name') return document.getElementsByName(value)[0];"
+			+ "  if (type == 'classname') return document.getElementsByClassName(value)[0];"
+			+ "  if (type == 'tagname') return document.getElementsByTagName(value)[0];"
+			+ "  if (type == 'cssselector') return document.querySelector(value);"
+			+ "  if (type == 'xpath')"
+			+ "    return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null)"
+			+ "      .singleNodeValue;"
+			+ "  var links = document.getElementsByTagName('a');"
+			+ "  for (var i = 0; i < links.length; i++) {"
+			+ "    var text = (links[i].innerText || links[i].textContent || '').trim();"
+			+ "    if (type == 'linktext' ? text == value : text.indexOf(value) >= 0) return links[i];"
+			+ "  }"
+			+ "  return null;"
+			+ "}"
+			+ "function isDisplayed(e) {"
+			+ "  var style = window.getComputedStyle(e);"
+			+ "  return e.getClientRects().length > 0 && style.visibility != 'hidden'"
+			+ "    && style.visibility != 'collapse' && style.opacity != '0';"
+			+ "}";
+
+	private static final String GET_ELEMENT_STATES = FIND_ELEMENT
+			+ "var queries = arguments[0], states = arguments[1], results = {};"
+			+ "function isInViewport(e) {"
+			+ "  var box = e.getBoundingClientRect(),"
+			+ "    p = document.elementFromPoint(box.left + box.width / 2, box.top + box.height / 2);"
+			+ "  for (; p; p = p.parentElement) if (p === e) return true;"
+			+ "  return false;"
+			+ "}"
+			+ "for (var q = 0; q < queries.length; q++) {"
+			+ "  var query = queries[q], result = results[query.name] = {};"
+			+ "  try {"
+			+ "    var e = find(query.type, query.value);"
+			+ "    result.present = e != null;"
+			+ "    if (!e) continue;"
+			+ "    for (var s = 0; s < states.length; s++) {"
+			+ "      var state = states[s];"
+			+ "      if (state == 'present') continue;"
+			+ "      else if (state == 'displayed') result[state] = isDisplayed(e);"
+			+ "      else if (state == 'enabled') result[state] = !e.disabled;"
+			+ "      else if (state == 'selected') result[state] = !!(e.checked || e.selected);"
+			+ "      else if (state == 'text') result[state] = isDisplayed(e) ? (e.innerText || '') : '';"
+			+ "      else if (state == 'value') result[state] = e.value == null ? null : String(e.value);"
+			+ "      else if (state == 'inViewport') result[state] = isInViewport(e);"
+			+ "      else {"
+			+ "        var value = e.getAttribute(state);"
+			+ "        if (value == null && state in e && e[state] != null) value = e[state];"
+			+ "        result[state] = value == null ? null : String(value);"
+			+ "      }"
+			+ "    }"
+			+ "  } catch (err) {"
+			+ "    result.error = String(err);"
+			+ "  }"
+			+ "}"
+			+ "return results;";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * To get the states of a set of elements
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param prpOR
+	 *            Object repository (OR) of the script
+	 * @param eles
+	 *            Element names in the OR
+	 * @param states
+	 *            ElementState names e.g. displayed, text or the names of the
+	 *            attributes to be read
+	 * @return states Returns a map of element name to a map of state name to
+	 *         value. An element which is not found has only present = false. An
+	 *         element whose locator failed in the browser has an error
+	 * @throws Exception
+	 *             if an element doesn't exist in the OR or its locator type is
+	 *             unknown
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Map<String, Object>> getStates(WebDriver driver, Properties prpOR, Collection<String> eles,
+			String... states) throws Exception {
+		List<Map<String, String>> queries = new ArrayList<Map<String, String>>();
+		for (String ele : eles)
+			queries.add(toQuery(prpOR, ele));
+		long startTime = System.currentTimeMillis();
+		Map<String, Object> results = (Map<String, Object>) ((JavascriptExecutor) driver)
+				.executeScript(GET_ELEMENT_STATES, queries, Arrays.asList(states));
+		Map<String, Map<String, Object>> elementStates = new LinkedHashMap<String, Map<String, Object>>();
+		for (String ele : eles) {
+			Map<String, Object> elementState = (Map<String, Object>) results.get(ele);
+			if (elementState.containsKey("error"))
+				logger.error("Unable to get the state of " + ele + ": " + elementState.get("error"));
+			elementStates.put(ele, elementState);
+		}
+		logger.info("Got " + Arrays.toString(states) + " of " + eles.size() + " element(s) in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
+		return elementStates;
+	}
+
+	/**
+	 * To convert an element to the query passed to FIND_ELEMENT
+	 *
+	 * @param prpOR
+	 *            Object repository (OR) of the script
+	 * @param ele
+	 *            Element name in the OR
+	 * @return query Returns a map of name, locator type and locator value
+	 * @throws Exception
+	 *             if the element doesn't exist in the OR or its locator type is
+	 *             unknown
+	 */
+	static Map<String, String> toQuery(Properties prpOR, String ele) throws Exception {
+		String locator = prpOR.getProperty(ele);
+		if (locator == null)
+			throw new Exception("Object doesn't exist. Please check the object: " + ele + " in the object repository");
+		String[] typeAndValue = LocatorCache.split(locator);
+		Map<String, String> query = new HashMap<String, String>();
+		query.put("name", ele);
+		query.put("type", typeAndValue[0]);
+		query.put("value", typeAndValue[1]);
+		return query;
+	}
+}
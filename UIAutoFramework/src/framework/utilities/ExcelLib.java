@@ -7,7 +7,6 @@ package framework.utilities;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import framework.constants.ITestdataEnums;
-import org.apache.poi.hssf.usermodel.HSSFDateUtil;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
@@ -17,63 +16,129 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class contains all the methods / actions that can be performed on an
  * Excel workbook
+ *
+ * @note The test data is read from an immutable snapshot of the workbook, so a
+ *       single instance can be shared by all the TestNG threads. Writes are
+ *       serialized and publish a new snapshot once the cell is updated. The
+ *       snapshot is streamed from the file, the XSSF workbook is loaded only
+ *       when something has to be written. Written cells are buffered in a
+ *       journal and saved to the file by flush() i.e. at the end of the suite or
+ *       every TestDataFlushInterval seconds
  */
 public class ExcelLib implements ITestdataEnums {
 
+	private static final Set<ExcelLib> instances = Collections.newSetFromMap(new WeakHashMap<ExcelLib, Boolean>());
+	private static boolean isFlusherStarted = false;
+
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-	private FileInputStream fis = null;
-	private FileOutputStream fos = null;
 	private File file = null;
 	private XSSFWorkbook workbook = null;
-	private XSSFSheet sheet = null;
-	private XSSFRow row = null;
-	private XSSFCell cell = null;
-	private int col_Num = -1, startRow = -1, endRow = -1;
+	private volatile TestDataSnapshot snapshot = TestDataSnapshot.EMPTY;
+	private final Object writeLock = new Object();
+	private final ThreadLocal<String> currentSheet = new ThreadLocal<String>();
 
 	private ConfigurationLib configLib;
 	private CommonUtilLib utilLib;
+	private TestDataReader reader;
+	private TestDataCache cache;
+	private TestDataJournal journal;
+	private TestDataDefaults defaults;
+	private ExcelReportWriter reportWriter = null;
+	private CellStyle boldStyle = null;
+	private boolean isWorkbookModified = false, isFlushScheduled = false;
 
 	public ExcelLib() {
 		configLib = new ConfigurationLib();
 		utilLib = new CommonUtilLib();
+		reader = new TestDataReader();
+		cache = new TestDataCache();
+		journal = new TestDataJournal();
+		defaults = new TestDataDefaults(configLib);
 	}
 
+	/**
+	 * To create an excel report. The column headers and the records written by
+	 * genereateCoumnHeaders() and createReport() to this sheet are streamed to
+	 * the file, which is written by closeReport()
+	 *
+	 * @param xlFilePath Path of the excel report
+	 * @param sheetName  Name of the sheet of the report
+	 * @note closeReport() is called after every script for the excel report of
+	 *       the script and at the end of the suite for the test data
+	 */
 	public void createExcel(String xlFilePath, String sheetName) {
 		try {
-			workbook = new XSSFWorkbook();
-			sheet = workbook.createSheet(sheetName);
-			File file = new File(xlFilePath);
-			OutputStream outputStream = new FileOutputStream(file);
-			workbook.write(outputStream);
-			outputStream.close();
-			workbook.close();
-			connectToExcel(xlFilePath);
+			closeReport();
+			synchronized (writeLock) {
+				reportWriter = new ExcelReportWriter(new File(xlFilePath), sheetName);
+				scheduleFlush();
+			}
 			logger.info("Created file in " + xlFilePath);
 		} catch (Exception e) {
 			logger.error("Unable to create the excel file in " + xlFilePath);
 		}
 	}
 
+	/**
+	 * To write the excel report created by createExcel() to the file
+	 */
+	public void closeReport() {
+		synchronized (writeLock) {
+			if (reportWriter == null)
+				return;
+			try {
+				reportWriter.close();
+			} catch (Exception e) {
+				logger.error("Unable to write the excel report", e);
+			}
+			reportWriter = null;
+		}
+	}
+
+	/**
+	 * To get the excel report if the sheet belongs to it
+	 *
+	 * @return Returns the report or null if the sheet is a sheet of the connected
+	 *         workbook
+	 */
+	private ExcelReportWriter getReportWriter(String sheetName) {
+		synchronized (writeLock) {
+			if (reportWriter != null && reportWriter.getSheetName().equals(sheetName))
+				return reportWriter;
+			return null;
+		}
+	}
+
 	/**
 	 * To connect to an excel sheet of format .xlsx based on the path provided in
 	 * the config.properties
 	 *
 	 * @param xlFilePath path of the excel file to establish the connection
+	 * @param sheetNames Names of the sheets to be read while connecting. If none
+	 *                   are passed then the TestMap and Testdata sheets are read.
+	 *                   Any other sheet is read when it is accessed for the first
+	 *                   time
 	 */
-	public boolean connectToExcel(String xlFilePath) {
+	public boolean connectToExcel(String xlFilePath, String... sheetNames) {
 		String extension = null;
 		boolean isConnected = false;
 		int intPos = -1;
+		List<String> sheetsToRead = new ArrayList<String>(Arrays.asList(sheetNames));
+		if (sheetsToRead.isEmpty()) {
+			for (Sheetname sheetName : Sheetname.values())
+				sheetsToRead.add(sheetName.toString());
+		}
 		try {
+			flush();
 			for (int i = xlFilePath.length() - 1; i > 0; i--) {
 				if (xlFilePath.charAt(i) == '.') {
 					intPos = i;
@@ -81,19 +146,27 @@ public class ExcelLib implements ITestdataEnums {
 				}
 			}
 			extension = xlFilePath.substring(intPos);
-			file = new File(xlFilePath);
-			fis = new FileInputStream(file);
-			if (!(extension.equalsIgnoreCase(".xlsx") || extension.equalsIgnoreCase(".xls")))
-				logger.error("Inavlid file format: " + extension + ". It should be either xlsx or xls");
-			else
-				workbook = new XSSFWorkbook(fis);
-			fis.close();
+			synchronized (writeLock) {
+				file = new File(xlFilePath);
+				if (!file.exists())
+					throw new FileNotFoundException(xlFilePath);
+				if (!(extension.equalsIgnoreCase(".xlsx") || extension.equalsIgnoreCase(".xls")))
+					logger.error("Inavlid file format: " + extension + ". It should be either xlsx or xls");
+				else {
+					workbook = null;
+					Map<String, TestDataSheet> sheets = readSheets(sheetsToRead);
+					for (Map.Entry<String, TestDataSheet> sheet : sheets.entrySet())
+						sheet.setValue(defaults.resolve(sheet.getValue()));
+					snapshot = new TestDataSnapshot(sheets);
+					logMemoryUsage(xlFilePath);
+				}
+			}
 			logger.info("Connected to excel: " + xlFilePath);
 			isConnected = true;
 		} catch (FileNotFoundException | NullPointerException e) {
 			logger.error("Correct the file path / name: " + xlFilePath, e);
 			e.printStackTrace();
-		} catch (IOException e) {
+		} catch (Exception e) {
 			logger.error("Unable to read the contents of the file: " + xlFilePath, e);
 			e.printStackTrace();
 		}
@@ -101,210 +174,293 @@ public class ExcelLib implements ITestdataEnums {
 	}
 
 	/**
-	 * To get the row number to read or write the data from excel
+	 * To read the sheets from the test data cache if it is up to date, else from
+	 * the workbook. The cache is refreshed after the workbook is read
 	 *
-	 * @note This is a helper method which will be called by getEntireCellValue()
-	 *       and setCellData(). Do not call this method directly
+	 * @note The cache is used unless TestDataCache is set as 0 in the
+	 *       config.properties
 	 */
-	private int getExcelRowNum(String script, int itr) {
-		int rowNo = -1;
-		boolean found = false;
-		String scriptCell = null, iterationCell = null;
-		try {
-			@SuppressWarnings("rawtypes")
-			Iterator iterator = sheet.rowIterator();
-			while (iterator.hasNext()) {
-				Row row = (Row) iterator.next();
-				scriptCell = row.getCell(1).toString().trim();
-				iterationCell = row.getCell(2).toString().trim();
-				if (row.getCell(2).getCellTypeEnum() == CellType.NUMERIC)
-					iterationCell = iterationCell.substring(0, iterationCell.indexOf(".")).trim();
-				if ((scriptCell.equals(script) && iterationCell.equals(String.valueOf(itr).trim()))
-						|| (scriptCell.equals(script) && Integer.parseInt(iterationCell) == itr)) {
-					startRow = row.getRowNum();
-					rowNo = row.getRowNum();
-					found = true;
-					break;
-				}
-			}
-			if (startRow == -1 || found == false)
-				throw new Exception(
-						"Please check the test name: " + script + " or the iteration: " + itr + " in the excel sheet");
-
-			row = sheet.getRow(0);
-		} catch (Exception e) {
-			logger.error("Unable to get the row number for script: " + script + " | " + itr, e);
-			startRow = -1;
-			rowNo = -1;
+	private Map<String, TestDataSheet> readSheets(List<String> sheetNames) throws Exception {
+		if ("0".equals(configLib.getTestDataCacheConfig()))
+			return reader.readSheets(file, sheetNames);
+		Map<String, TestDataSheet> sheets = cache.read(file, sheetNames);
+		if (sheets == null) {
+			sheets = reader.readSheets(file, sheetNames);
+			cache.write(file, sheetNames, sheets);
 		}
-		return rowNo;
+		return sheets;
 	}
 
 	/**
-	 * To get the column number to read or write the data from excel
+	 * To report the heap used by the test data against the maximum heap of the JVM
+	 */
+	private void logMemoryUsage(String xlFilePath) {
+		long testDataSize = snapshot.getEstimatedSize() / (1024 * 1024);
+		long maxHeap = Runtime.getRuntime().maxMemory() / (1024 * 1024);
+		logger.info("Test data of " + xlFilePath + " uses ~" + testDataSize + " MB of the " + maxHeap
+				+ " MB heap ceiling");
+		if (testDataSize * 2 > maxHeap)
+			logger.warn("Test data uses more than half of the heap. Increase the heap size using -Xmx");
+	}
+
+	/**
+	 * To get the XSSF workbook to write to. The workbook is loaded from the file on
+	 * the first write
 	 *
-	 * @param colName Name of the column should be passed as a parameter
-	 * @return
-	 * @note This is a helper method which will be called by getEntireCellValue()
-	 *       and setCellData(). Do not call this method directly
+	 * @note Should be called only while holding the write lock
 	 */
-	private int getExcelColNum(String colName) throws Exception {
-		Row firstRow = sheet.getRow(0);
-		int colNo = -1;
-		boolean found = false;
-		for (int i = 0; i < firstRow.getLastCellNum(); i++) {
-			if (firstRow.getCell(i).getStringCellValue().trim().equals(colName.trim())) {
-				col_Num = i;
-				colNo = i;
-				found = true;
-				break;
-			}
-		}
-		if (col_Num == -1 || found == false) {
-			logger.error("Column " + colName + " doesn't exist in the test data sheet");
-			throw new Exception("Please check the column name: " + colName + " in the test data sheet");
+	private XSSFWorkbook getWorkbook() throws IOException {
+		if (workbook == null) {
+			FileInputStream fis = new FileInputStream(file);
+			workbook = new XSSFWorkbook(fis);
+			boldStyle = null;
+			fis.close();
+			logger.info("Loaded the workbook " + file.getName() + " to write test data");
 		}
-		return colNo;
+		return workbook;
 	}
 
 	/**
-	 * To get the excel cell to read or write the data
+	 * To apply the buffered writes to the XSSF workbook. The workbook is not saved
 	 *
-	 * @note This is a helper method which will be called by getEntireCellValue()
-	 *       and setCellData(). Do not call this method directly
+	 * @return Returns the number of cells written
+	 * @note Should be called only while holding the write lock
 	 */
+	private int applyPendingWrites() throws IOException {
+		List<TestDataJournal.Write> writes = journal.drain();
+		for (TestDataJournal.Write write : writes) {
+			XSSFSheet sheet = getWorkbook().getSheet(write.getSheetName());
+			XSSFRow row = sheet.getRow(write.getRow());
+			if (row == null)
+				row = sheet.createRow(write.getRow());
+			XSSFCell cell = row.createCell(write.getCol());
+			cell.setCellValue(write.getValue());
+		}
+		if (!writes.isEmpty())
+			isWorkbookModified = true;
+		return writes.size();
+	}
 
-	private XSSFCell getCell(int cellRow, int cellCol) {
-		try {
-			row = sheet.getRow(cellRow);
-			cell = row.getCell(cellCol);
-		} catch (Exception e) {
-			e.printStackTrace();
+	/**
+	 * To save all the buffered writes to the excel file in a single save. This is
+	 * called at the end of the suite, every TestDataFlushInterval seconds (if
+	 * configured) and when the JVM shuts down
+	 *
+	 * @note Excel sheet should be closed in order to save the data. If the save
+	 *       fails the data is kept and saved by the next flush
+	 */
+	public void flush() {
+		synchronized (writeLock) {
+			long startTime = System.currentTimeMillis();
+			int numOfCells = 0;
+			try {
+				numOfCells = applyPendingWrites();
+				if (!isWorkbookModified)
+					return;
+				FileOutputStream fos = new FileOutputStream(file);
+				workbook.write(fos);
+				fos.close();
+				isWorkbookModified = false;
+				logger.info("Saved " + numOfCells + " cell(s) to " + file.getName() + " in "
+						+ (System.currentTimeMillis() - startTime) + " ms");
+			} catch (FileNotFoundException e) {
+				logger.error("Please close the test data sheet. Unable to save the test data to " + file.getName());
+			} catch (Exception e) {
+				logger.error("Unable to save the test data to excel", e);
+			}
 		}
-		return cell;
 	}
 
 	/**
-	 * To determine whether the cell is merged or not. If rowsMerged > 1 then the
-	 * script contains merged rows
+	 * To schedule the flush of the buffered writes. The writes are always flushed
+	 * when the JVM shuts down and also periodically if TestDataFlushInterval is
+	 * set
 	 *
-	 * @return returns the number of rows merged
+	 * @note Should be called only while holding the write lock
 	 */
-	@SuppressWarnings("finally")
-	private int getNumOfMergedRows(String colName, int startingRow, boolean fromScriptName) {
-		int rowsMerged = 0, col = 0, endRw = 0;
-		XSSFRow mergedRow = null;
-		XSSFCell mergedCell = null;
-		CellType cellType = CellType.BLANK;
+	private void scheduleFlush() {
+		if (isFlushScheduled)
+			return;
+		isFlushScheduled = true;
+		int interval = 0;
 		try {
+			interval = Integer.parseInt(configLib.getTestDataFlushInterval().trim());
+		} catch (NullPointerException | NumberFormatException e) {
+			logger.debug("TestDataFlushInterval is not set. Test data will be saved at the end of the suite");
+		}
+		register(this, interval);
+	}
 
-			if (fromScriptName) {
-				col = 1;
-				endRw = sheet.getPhysicalNumberOfRows();
-			} else {
-				col = getExcelColNum(colName);
-				endRw = endRow;
+	/**
+	 * To add an instance to the instances flushed by the shutdown hook and the
+	 * periodic flush. A single hook and a single flush thread are started for
+	 * all the instances. The instances are held weakly, so an instance which is
+	 * discarded e.g. the excel report of a script doesn't stay in memory
+	 *
+	 * @param excel    Instance which has buffered writes or an open report
+	 * @param interval TestDataFlushInterval in seconds, used by the first call
+	 */
+	private static void register(ExcelLib excel, int interval) {
+		synchronized (instances) {
+			instances.add(excel);
+			if (isFlusherStarted)
+				return;
+			isFlusherStarted = true;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+			for (ExcelLib instance : getInstances()) {
+				instance.flush();
+				instance.closeReport();
 			}
+		}, "TestData Flush"));
+		if (interval > 0) {
+			ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "TestData Flush");
+				thread.setDaemon(true);
+				return thread;
+			});
+			scheduler.scheduleWithFixedDelay(() -> {
+				for (ExcelLib instance : getInstances())
+					instance.flush();
+			}, interval, interval, TimeUnit.SECONDS);
+		}
+	}
 
-			for (int i = startingRow + 1; i < endRw; i++) {
-				mergedRow = sheet.getRow(i);
-				mergedCell = mergedRow.getCell(col);
-				try {
-					cellType = mergedCell.getCellTypeEnum();
-				} catch (NullPointerException e) {
-					logger.debug("Cells are not merged");
-					cellType = CellType.BLANK;
+	private static List<ExcelLib> getInstances() {
+		synchronized (instances) {
+			return new ArrayList<ExcelLib>(instances);
+		}
+	}
+
+	/**
+	 * To get the read only snapshot of the test data. The snapshot can be queried
+	 * concurrently from any thread
+	 *
+	 * @return snapshot Returns the current snapshot of the workbook
+	 */
+	public TestDataSnapshot getSnapshot() {
+		return snapshot;
+	}
+
+	/**
+	 * To get a sheet from the current snapshot. The sheet becomes the current
+	 * sheet of the calling thread
+	 *
+	 * @note This is a helper method which will be called by getCellData() and
+	 *       setCellData(). Do not call this method directly
+	 */
+	private TestDataSheet getSheetData(String sheetName) throws Exception {
+		currentSheet.set(sheetName);
+		TestDataSheet data = snapshot.getSheet(sheetName);
+		if (data == null) {
+			synchronized (writeLock) {
+				data = snapshot.getSheet(sheetName);
+				if (data == null) {
+					if (workbook != null && workbook.getSheet(sheetName) != null)
+						data = TestDataSheet.of(workbook.getSheet(sheetName));
+					else if (file != null)
+						data = reader.readSheets(file, Collections.singleton(sheetName)).get(sheetName);
+					if (data != null) {
+						data = defaults.resolve(data);
+						publish(data);
+					}
 				}
-				if (cellType == CellType.BLANK)
-					rowsMerged++;
-				else
-					break;
 			}
-		} catch (Exception e) {
-			logger.info("No merged rows found");
-		} finally {
-			rowsMerged++;
-			return rowsMerged;
 		}
+		if (data == null)
+			throw new Exception("Please check the sheet name: " + sheetName);
+		return data;
+	}
+
+	/**
+	 * To replace a sheet in the snapshot once it is written to
+	 *
+	 * @note Should be called only while holding the write lock
+	 */
+	private void publish(TestDataSheet data) {
+		snapshot = snapshot.withSheet(data);
+	}
+
+	/**
+	 * To get the rows of a script's record to read or write the data from excel
+	 *
+	 * @note This is a helper method which will be called by getCellData(),
+	 *       setCellData() and findAndReplace(). Do not call this method directly
+	 */
+	private Cursor getExcelRecord(String sheetName, String script, int itr) throws Exception {
+		TestDataSheet data = getSheetData(sheetName);
+		TestDataIndex.RowRange record = data.getIndex().getRecord(script, itr);
+		if (record == null) {
+			logger.error("Unable to get the row number for script: " + script + " | " + itr);
+			throw new Exception(
+					"Please check the test name: " + script + " or the iteration: " + itr + " in the excel sheet");
+		}
+		return new Cursor(data, record.getStart(), record.getEnd());
+	}
+
+	/**
+	 * To get the column number to read or write the data from excel
+	 *
+	 * @param colName Name of the column should be passed as a parameter
+	 * @return
+	 * @note This is a helper method which will be called by getCellData() and
+	 *       setCellData(). Do not call this method directly
+	 */
+	private int getExcelColNum(TestDataSheet data, String colName) throws Exception {
+		int colNo = data.getIndex().getColumn(colName);
+		if (colNo == -1) {
+			logger.error("Column " + colName + " doesn't exist in the test data sheet");
+			throw new Exception("Please check the column name: " + colName + " in the test data sheet");
+		}
+		return colNo;
+	}
 
+	/**
+	 * To determine whether the cell is merged or not within the current record.
+	 * If rowsMerged > 1 then the column contains merged rows
+	 *
+	 * @return returns the number of rows merged
+	 * @note The number of rows of the record itself is available from the index
+	 */
+	private int getNumOfMergedRows(TestDataSheet data, int col, int startingRow, int endRow) {
+		return data.getMergedRowsEnd(col, startingRow, endRow) - startingRow;
 	}
 
 	/**
 	 * To get values from multiple rows in case of merged cells
 	 *
-	 * @param sheetName  Name of the sheet
 	 * @param colName    Name of the column
 	 * @param rowsMerged This is to determine the upper limit while fetching data
 	 *                   from multiple rows
 	 * @return cellValues ArrayList of values
 	 */
-	private ArrayList<String> getValuesFromMultipleRows(String sheetName, String colName, int startingRow,
+	private ArrayList<String> getValuesFromMultipleRows(TestDataSheet data, String colName, int col, int startingRow,
 			int rowsMerged) {
 		ArrayList<String> cellValues = new ArrayList<String>();
 		String val;
-		int col = 0;
 		logger.info("Retrieving multiple values from column: " + colName);
-		try {
-			col = getExcelColNum(colName);
-			for (int i = startingRow; i < startingRow + rowsMerged; i++) {
-				cell = getCell(i, col);
-				try {
-					if (cell.getCellTypeEnum() != CellType.BLANK) {
-						val = getEntireCellValue(sheetName, colName, i, col);
-						logger.info("Fetching " + val);
-						cellValues.add(val);
-					}
-				} catch (NullPointerException ne) {
-					logger.info("Cell is empty");
-				}
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
+		for (int i : data.getNonBlankRows(col, startingRow, startingRow + rowsMerged)) {
+			val = getEntireCellValue(data, i, col);
+			logger.info("Fetching " + val);
+			cellValues.add(val);
 		}
 		return cellValues;
 	}
 
 	/**
-	 * To get the entire cell data from excel sheet based on the sheet (tab) name
-	 * and column name
+	 * To get the entire cell data from the test data snapshot
 	 *
-	 * @param sheetName Name of the sheet to fetch the data from
-	 * @param colName   Name of the column to fetch the data from
+	 * @param data Sheet to fetch the data from
+	 * @param row  Row to fetch the data from
+	 * @param col  Column to fetch the data from
 	 * @return cellValue Returns the entire cell value
-	 * @note This method calls getCell() to fetch data from Excel. This is a helper
-	 *       method which will be called by getCellData. Do not call this method
-	 *       directly
+	 * @note This is a helper method which will be called by getCellData. Do not
+	 *       call this method directly. The default values (TestDataDefaultValues)
+	 *       are already substituted when the sheet is loaded
 	 */
 
-	private String getEntireCellValue(String sheetName, String colName, int row, int col) {
-		String val = null;
-		try {
-			getCell(row, col);
-			if (cell.getCellTypeEnum() == CellType.STRING)
-				val = cell.getStringCellValue().trim();
-			else if (cell.getCellTypeEnum() == CellType.FORMULA)
-				val = cell.getRichStringCellValue().toString().trim();
-			else if (cell.getCellTypeEnum() == CellType.NUMERIC) {
-				String cellValue = String.valueOf(cell.getNumericCellValue()).replaceFirst("\\.0+$", "");
-				if (HSSFDateUtil.isCellDateFormatted(cell)) {
-					DateFormat df = new SimpleDateFormat("dd/MM/yyyy");
-					Date date = cell.getDateCellValue();
-					cellValue = df.format(date);
-				}
-				val = cellValue.trim();
-			} else if (cell.getCellTypeEnum() == CellType.BLANK)
-				val = null;
-			else
-				val = String.valueOf(cell.getBooleanCellValue()).trim();
-			val = validateTestDataValueToFetchExist(val);
-		} catch (NullPointerException e) {
-			logger.info(
-					"Cell is empty. If this is not expected then check the sheet name or the formatting of the sheet: "
-							+ sheetName);
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		return val;
+	private String getEntireCellValue(TestDataSheet data, int row, int col) {
+		return data.getValue(row, col);
 	}
 
 	/**
@@ -322,26 +478,21 @@ public class ExcelLib implements ITestdataEnums {
 	 *         casted to String or String[]. Type cast the returned value as String
 	 *         if fetchMultiple is false. Type cast the returned value as String []
 	 *         if fetch multiple is set to true
-	 * @note This method calls getExcelRowNum(), getNumOfMergedRows(),
-	 *       getExcelColNum, getEntireCellValue(sheetName, colName) to fetch data
-	 *       from Excel
+	 * @note This method calls getExcelRecord(), getExcelColNum,
+	 *       getEntireCellValue() to fetch data from Excel
 	 */
 
 	public Object getCellData(String sheetName, String scriptName, int iteration, String colName,
 			boolean fetchMultiple) {
 		String cellValue = null;
 		Object[] cellSepData = null;
-		int mergedRows = 0, rowNo = -1, colNo = -1;
+		Cursor record = null;
+		int colNo = -1;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			rowNo = getExcelRowNum(scriptName, iteration);
-			if (rowNo == -1)
-				throw new Exception("Record doesn't exist in the excel sheet");
-			mergedRows = getNumOfMergedRows(Testdata.SCRIPTNAME.toString(), startRow, true);
-			endRow = rowNo + mergedRows;
-			colNo = getExcelColNum(colName);
-			if (mergedRows <= 1) {
-				cellValue = getEntireCellValue(sheetName, colName, startRow, colNo);
+			record = getExcelRecord(sheetName, scriptName, iteration);
+			colNo = getExcelColNum(record.data, colName);
+			if (record.size() <= 1) {
+				cellValue = getEntireCellValue(record.data, record.startRow, colNo);
 				if (fetchMultiple) {
 					if (cellValue.contains(";")) {
 						cellSepData = cellValue.split(";");
@@ -360,7 +511,8 @@ public class ExcelLib implements ITestdataEnums {
 					return cellValue;
 				}
 			} else {
-				ArrayList<String> cellValues = getValuesFromMultipleRows(sheetName, colName, startRow, mergedRows);
+				ArrayList<String> cellValues = getValuesFromMultipleRows(record.data, colName, colNo, record.startRow,
+						record.size());
 				cellSepData = cellValues.toArray(new String[cellValues.size()]);
 				if (fetchMultiple)
 					return cellSepData;
@@ -369,7 +521,7 @@ public class ExcelLib implements ITestdataEnums {
 
 			}
 		} catch (Exception e) {
-			if (rowNo == -1)
+			if (record == null)
 				logger.error("Record doesn't exist in the sheet: " + sheetName + " in column: " + colName);
 			return null;
 		}
@@ -382,61 +534,48 @@ public class ExcelLib implements ITestdataEnums {
 	 * mapped to package C, D, and F. Then to fetch only the packages associated
 	 * with R1 we can use this method
 	 *
-	 * @param sheetName           Name of the sheet to fetch data from
-	 * @param relativeColumn      The relative column name (primary column) which is
-	 *                            used with respect to the actual column to fetch
-	 *                            the values e.g. reference set
+	 * @param record              Rows of the script's record
+	 * @param relativeColNum      Number of the relative column (primary column)
+	 *                            which is used with respect to the actual column to
+	 *                            fetch the values e.g. reference set
 	 * @param relativeColumnValue The relative column value which is used with
 	 *                            respect to the actual column to fetch the values
 	 *                            e.g. R1
 	 * @param colName             Actual name of the column to fetch data from e.g.
 	 *                            package name
+	 * @param colNo               Number of the actual column
 	 * @return cellSepData Returns value of type Object. It should be either type
 	 *         casted to String or String[]
 	 * @note This method is called by getCellData(String, String, String). Do not
 	 *       call this method individually
 	 */
 
-	private Object getCellData(String sheetName, String scriptName, int iteration, String relativeColumn,
-			String relativeColumnValue, String colName, boolean allKeysAreSame) {
+	private Object getCellData(Cursor record, int relativeColNum, String relativeColumnValue, String colName,
+			int colNo, boolean allKeysAreSame) {
 		ArrayList<String> cellValues = null;
 		ArrayList<String> completeCellValues = new ArrayList<String>();
-		int relativeColMergedRows = 0, actColMergedRows = 0, relativeColNum = 0, rowNo = 0;
+		int actColMergedRows = 0;
 		String val;
 		Object[] cellSepData = null;
-		try {
-			sheet = workbook.getSheet(sheetName);
-			rowNo = getExcelRowNum(scriptName, iteration);
-			relativeColMergedRows = getNumOfMergedRows(Testdata.SCRIPTNAME.toString(), startRow, true);
-			endRow = rowNo + relativeColMergedRows;
-			getExcelColNum(colName);
-			relativeColNum = getExcelColNum(relativeColumn);
-			for (int i = startRow; i < startRow + relativeColMergedRows; i++) {
-				cell = getCell(i, relativeColNum);
-				try {
-					if (cell.getCellTypeEnum() != CellType.BLANK) {
-						val = getEntireCellValue(sheetName, relativeColumn, i, relativeColNum);
-						if (val.equalsIgnoreCase(relativeColumnValue)) {
-							actColMergedRows = getNumOfMergedRows(relativeColumn, i, false);
-							cellValues = getValuesFromMultipleRows(sheetName, colName, i, actColMergedRows);
-							if (allKeysAreSame) {
-								completeCellValues.addAll(cellValues);
-								cellSepData = completeCellValues.toArray(new String[completeCellValues.size()]);
-							} else {
-								cellSepData = cellValues.toArray(new String[cellValues.size()]);
-								break;
-							}
-						}
+		for (int i : record.data.getNonBlankRows(relativeColNum, record.startRow, record.endRow)) {
+			try {
+				val = getEntireCellValue(record.data, i, relativeColNum);
+				if (val.equalsIgnoreCase(relativeColumnValue)) {
+					actColMergedRows = getNumOfMergedRows(record.data, relativeColNum, i, record.endRow);
+					cellValues = getValuesFromMultipleRows(record.data, colName, colNo, i, actColMergedRows);
+					if (allKeysAreSame) {
+						completeCellValues.addAll(cellValues);
+						cellSepData = completeCellValues.toArray(new String[completeCellValues.size()]);
+					} else {
+						cellSepData = cellValues.toArray(new String[cellValues.size()]);
+						break;
 					}
-				} catch (NullPointerException ne) {
-					logger.debug("Cell is empty");
 				}
+			} catch (NullPointerException ne) {
+				logger.debug("Cell is empty");
 			}
-			return cellSepData;
-		} catch (Exception e) {
-			e.printStackTrace();
-			return null;
 		}
+		return cellSepData;
 	}
 
 	/**
@@ -462,16 +601,17 @@ public class ExcelLib implements ITestdataEnums {
 		String[] relativeEle, val;
 		Multimap<String, String> testDataMap = ArrayListMultimap.create();
 		try {
+			Cursor record = getExcelRecord(sheetName, scriptName, iteration);
+			int colNo = getExcelColNum(record.data, colName);
+			int relativeColNum = getExcelColNum(record.data, relativeColumn);
 			relativeEle = (String[]) (getCellData(sheetName, scriptName, iteration, relativeColumn, true));
 			if (utilLib.verifyIfAllElementsAreSameInArray(relativeEle)) {
-				val = (String[]) (getCellData(sheetName, scriptName, iteration, relativeColumn, relativeEle[0], colName,
-						true));
+				val = (String[]) (getCellData(record, relativeColNum, relativeEle[0], colName, colNo, true));
 				for (int i = 0; i < val.length; i++)
 					testDataMap.put(relativeEle[0], val[i]);
 			} else {
 				for (int i = 0; i < relativeEle.length; i++) {
-					val = (String[]) (getCellData(sheetName, scriptName, iteration, relativeColumn, relativeEle[i],
-							colName, false));
+					val = (String[]) (getCellData(record, relativeColNum, relativeEle[i], colName, colNo, false));
 					if (val == null)
 						logger.info("No data exists in " + colName + " with relative column " + relativeColumn);
 					else {
@@ -486,33 +626,49 @@ public class ExcelLib implements ITestdataEnums {
 		return testDataMap;
 	}
 
+	/**
+	 * To write to a cell of the current sheet i.e. the sheet last read or written
+	 * by the calling thread
+	 *
+	 * @param cellRow   Row to write data to
+	 * @param cellCol   Column to write data to
+	 * @param textToSet Text to be written to above row and column
+	 * @deprecated The current sheet is kept per thread since the test data is
+	 *             shared by the threads. Use writeTo(sheetName, cellRow, cellCol,
+	 *             textToSet) instead
+	 */
+	@Deprecated
+	public void writeTo(int cellRow, int cellCol, String textToSet) {
+		String sheetName = currentSheet.get();
+		if (sheetName == null)
+			logger.error("No sheet is read by this thread yet. Unable to write: " + textToSet + " to excel");
+		else
+			writeTo(sheetName, cellRow, cellCol, textToSet);
+	}
+
 	/**
 	 * To write to a cell
 	 *
+	 * @param sheetName Name of the sheet to write data to
 	 * @param cellRow   Row to write data to
 	 * @param cellCol   Column to write data to
 	 * @param textToSet Text to be written to above row and column
 	 * @note This is a helper method which will be called by setCellData(), and
-	 *       findAndReplace Do not call this method directly
+	 *       findAndReplace Do not call this method directly. The value can be read
+	 *       back immediately, it is saved to the file by flush()
 	 */
 
-	public void writeTo(int cellRow, int cellCol, String textToSet) {
-		try {
-			row = sheet.getRow(cellRow);
-			if (row == null)
-				row = sheet.createRow(cellRow);
-			cell = row.createCell(cellCol);
-
-			cell.setCellValue(textToSet);
-			fis.close();
-			fos = new FileOutputStream(file);
-			workbook.write(fos);
-			fos.close();
-			logger.info("Wrote " + textToSet + " in row: " + cellRow + ", column " + cellCol + " in excel");
-		} catch (FileNotFoundException e) {
-			logger.error("Please close the test data sheet. Unable to write: " + textToSet + " to excel");
-		} catch (Exception e) {
-			e.printStackTrace();
+	public void writeTo(String sheetName, int cellRow, int cellCol, String textToSet) {
+		synchronized (writeLock) {
+			try {
+				publish(getSheetData(sheetName).withValue(cellRow, cellCol,
+						textToSet == null ? null : defaults.resolve(textToSet.trim())));
+				journal.record(sheetName, cellRow, cellCol, textToSet);
+				scheduleFlush();
+				logger.info("Wrote " + textToSet + " in row: " + cellRow + ", column " + cellCol + " in excel");
+			} catch (Exception e) {
+				e.printStackTrace();
+			}
 		}
 	}
 
@@ -528,23 +684,24 @@ public class ExcelLib implements ITestdataEnums {
 	 * @param append     Pass True to append with existing data with a ";" semicolon
 	 *                   Pass False to write only the new text
 	 * @note Excel sheet should be closed in order to write data to excel This
-	 *       method calls getRowNum(), getColNum(colName), and getCell() to fetch
-	 *       data from Excel
+	 *       method calls getExcelRecord(), getExcelColNum(colName), and writeTo()
+	 *       to write data to Excel
 	 */
 
 	public void setCellData(String sheetName, String scriptName, int iteration, String colName, String textToSet,
 			boolean append) {
 		String existingText = null;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			getExcelRowNum(scriptName, iteration);
-			getExcelColNum(colName);
-			logger.debug("Setting data in excel. Row - " + (startRow + 1) + " and column - " + (col_Num + 1));
-			if (append) {
-				existingText = (String) getCellData(sheetName, scriptName, iteration, colName, false);
-				textToSet = existingText + "; " + textToSet;
+			synchronized (writeLock) {
+				Cursor record = getExcelRecord(sheetName, scriptName, iteration);
+				int col = getExcelColNum(record.data, colName);
+				logger.debug("Setting data in excel. Row - " + (record.startRow + 1) + " and column - " + (col + 1));
+				if (append) {
+					existingText = (String) getCellData(sheetName, scriptName, iteration, colName, false);
+					textToSet = existingText + "; " + textToSet;
+				}
+				writeTo(sheetName, record.startRow, col, textToSet);
 			}
-			writeTo(startRow, col_Num, textToSet);
 		} catch (NullPointerException e) {
 			logger.error("Please check the sheet name or the formatting of the sheet: " + sheetName, e);
 			e.printStackTrace();
@@ -564,21 +721,29 @@ public class ExcelLib implements ITestdataEnums {
 	 *                  other
 	 */
 	public void setCellData(String sheetName, String scriptName, int iteration, String colName, String[] textToSet) {
-		int startRow = -1, endRow = -1, rowsToBeCreated = -1, mergedRows = -1;
+		int startRow = -1, endRow = -1, rowsToBeCreated = -1, mergedRows = -1, col = -1;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			startRow = getExcelRowNum(scriptName, iteration);
-			getExcelColNum(colName);
-			endRow = sheet.getPhysicalNumberOfRows();
-			rowsToBeCreated = textToSet.length;
+			synchronized (writeLock) {
+				Cursor record = getExcelRecord(sheetName, scriptName, iteration);
+				col = getExcelColNum(record.data, colName);
+				startRow = record.startRow;
+				endRow = record.data.getNumOfRows();
+				rowsToBeCreated = textToSet.length;
 
-			mergedRows = getNumOfMergedRows(colName, startRow, true);
+				mergedRows = record.size();
 
-			if (startRow != endRow - 1 && rowsToBeCreated > mergedRows)
-				sheet.shiftRows(startRow + 1, endRow + 1, rowsToBeCreated - mergedRows);
+				if (startRow != endRow - 1 && rowsToBeCreated > mergedRows) {
+					applyPendingWrites();
+					XSSFSheet sheet = getWorkbook().getSheet(sheetName);
+					sheet.shiftRows(startRow + 1, endRow + 1, rowsToBeCreated - mergedRows);
+					isWorkbookModified = true;
+					scheduleFlush();
+					publish(defaults.resolve(TestDataSheet.of(sheet)));
+				}
 
-			for (int i = 0; i < rowsToBeCreated; i++) {
-				writeTo(startRow + i, col_Num, textToSet[i]);
+				for (int i = 0; i < rowsToBeCreated; i++) {
+					writeTo(sheetName, startRow + i, col, textToSet[i]);
+				}
 			}
 		} catch (NullPointerException e) {
 			logger.error("Please check the sheet name or the formatting of the sheet: " + sheetName, e);
@@ -604,33 +769,29 @@ public class ExcelLib implements ITestdataEnums {
 	 *                             semicolon Pass False to replace the entire
 	 *                             existing text with new text
 	 * @pre-requisite
-	 * @note This method calls getExcelRowNum(), getNumOfMergedRows(),
-	 *       getExcelColNum, getEntireCellValue(sheetName, colName), writeTo(int,
-	 *       int, String) to write data to Excel
+	 * @note This method calls getExcelRecord(), getExcelColNum,
+	 *       getEntireCellValue(), writeTo() to write data to Excel
 	 */
 
 	public void findAndReplace(String sheetName, String scriptName, int iteration, String colName, String textToFind,
 			String textToSet, boolean replaceAllOccurences, boolean append) {
-		int mergedRows = 0, col = -1, startingRow = -1, rowNo = -1;
+		int col = -1;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			rowNo = getExcelRowNum(scriptName, iteration);
-			mergedRows = getNumOfMergedRows(Testdata.SCRIPTNAME.toString(), startRow, true);
-			endRow = rowNo + mergedRows;
-			col = getExcelColNum(colName);
-			startingRow = startRow;
-			for (int i = startingRow; i < startingRow + mergedRows; i++) {
-				cell = getCell(i, col);
-				if (cell.getCellTypeEnum() != CellType.BLANK) {
-					if (getEntireCellValue(sheetName, colName, i, col).equalsIgnoreCase(textToFind)) {
-						if (append) {
-							textToSet = textToFind + "; " + textToSet;
+			synchronized (writeLock) {
+				Cursor record = getExcelRecord(sheetName, scriptName, iteration);
+				col = getExcelColNum(record.data, colName);
+				for (int i = record.startRow; i < record.endRow; i++) {
+					if (!record.data.isBlank(i, col)) {
+						if (getEntireCellValue(record.data, i, col).equalsIgnoreCase(textToFind)) {
+							if (append) {
+								textToSet = textToFind + "; " + textToSet;
+							}
+							logger.info("Found " + textToFind + " in excel. Replacing it with " + textToSet
+									+ " at row - " + (i + 1) + " and column - " + (col + 1));
+							writeTo(sheetName, i, col, textToSet);
+							if (!replaceAllOccurences)
+								break;
 						}
-						logger.info("Found " + textToFind + " in excel. Replacing it with " + textToSet + " at row - "
-								+ (i + 1) + " and column - " + (col + 1));
-						writeTo(i, col, textToSet);
-						if (!replaceAllOccurences)
-							break;
 					}
 				}
 			}
@@ -666,44 +827,35 @@ public class ExcelLib implements ITestdataEnums {
 	 * @param append               Pass True to append with existing data with a ";"
 	 *                             semicolon Pass False to replace the entire
 	 *                             existing text with new text
-	 * @note This method calls getExcelRowNum(), getNumOfMergedRows(),
-	 *       getExcelColNum, getEntireCellValue(sheetName, colName), writeTo(int,
-	 *       int, String) to write data to Excel
+	 * @note This method calls getExcelRecord(), getNumOfMergedRows(),
+	 *       getExcelColNum, getEntireCellValue(), writeTo() to write data to Excel
 	 */
 
 	public void findAndReplace(String sheetName, String scriptName, int iteration, String relativeColumn,
 			String relativeColumnValue, String colName, String textToFind, String textToSet,
 			boolean replaceAllOccurences, boolean append) {
-		int relativeColMergedRows = 0, actColMergedRows = 0, relativeColNum = 0, col = -1, startingRow = -1, rowNo = -1;
+		int actColMergedRows = 0, relativeColNum = 0, col = -1, startingRow = -1;
 		String val;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			rowNo = getExcelRowNum(scriptName, iteration);
-			relativeColMergedRows = getNumOfMergedRows(Testdata.SCRIPTNAME.toString(), startRow, true);
-			endRow = rowNo + relativeColMergedRows;
-			getExcelColNum(colName);
-			relativeColNum = getExcelColNum(relativeColumn);
-			for (int i = startRow; i < startRow + relativeColMergedRows; i++) {
-				cell = getCell(i, relativeColNum);
-				if (cell.getCellTypeEnum() != CellType.BLANK) {
-					val = getEntireCellValue(sheetName, relativeColumnValue, i, relativeColNum);
+			synchronized (writeLock) {
+				Cursor record = getExcelRecord(sheetName, scriptName, iteration);
+				col = getExcelColNum(record.data, colName);
+				relativeColNum = getExcelColNum(record.data, relativeColumn);
+				for (int i : record.data.getNonBlankRows(relativeColNum, record.startRow, record.endRow)) {
+					val = getEntireCellValue(record.data, i, relativeColNum);
 					if (val.equalsIgnoreCase(relativeColumnValue)) {
-						actColMergedRows = getNumOfMergedRows(relativeColumn, i, false);
-						col = getExcelColNum(colName);
+						actColMergedRows = getNumOfMergedRows(record.data, relativeColNum, i, record.endRow);
 						startingRow = i;
-						for (int j = startingRow; j < startingRow + actColMergedRows; j++) {
-							cell = getCell(j, col);
-							if (cell.getCellTypeEnum() != CellType.BLANK) {
-								if (getEntireCellValue(sheetName, colName, j, col).equalsIgnoreCase(textToFind)) {
-									if (append) {
-										textToSet = textToFind + "; " + textToSet;
-									}
-									logger.info("Found " + textToFind + " in excel. Replacing it with " + textToSet
-											+ " at row - " + (j + 1) + " and column - " + (col + 1));
-									writeTo(j, col, textToSet);
-									if (!replaceAllOccurences)
-										break;
+						for (int j : record.data.getNonBlankRows(col, startingRow, startingRow + actColMergedRows)) {
+							if (getEntireCellValue(record.data, j, col).equalsIgnoreCase(textToFind)) {
+								if (append) {
+									textToSet = textToFind + "; " + textToSet;
 								}
+								logger.info("Found " + textToFind + " in excel. Replacing it with " + textToSet
+										+ " at row - " + (j + 1) + " and column - " + (col + 1));
+								writeTo(sheetName, j, col, textToSet);
+								if (!replaceAllOccurences)
+									break;
 							}
 						}
 					}
@@ -725,19 +877,9 @@ public class ExcelLib implements ITestdataEnums {
 	 * @return occurrences Number of occurrences
 	 */
 	public int getNumberOfOccurences(String script) {
-		String scriptCell = null;
 		int occurences = 0;
 		try {
-			sheet = workbook.getSheet(Sheetname.TEST_MAP.toString());
-			@SuppressWarnings("rawtypes")
-			Iterator iterator = sheet.rowIterator();
-			while (iterator.hasNext()) {
-				Row row = (Row) iterator.next();
-				scriptCell = row.getCell(1).toString().trim();
-				if (scriptCell.equals(script)) {
-					occurences++;
-				}
-			}
+			occurences = getSheetData(Sheetname.TEST_MAP.toString()).getIndex().getNumberOfOccurences(script);
 		} catch (Exception e) {
 			System.out.println("Unable to get number of occurences of script name " + script);
 		}
@@ -751,28 +893,13 @@ public class ExcelLib implements ITestdataEnums {
 
 	public void readExcelSheet(String sheetName) {
 		try {
-			sheet = workbook.getSheet(sheetName);
-			Iterator<Row> iterator = sheet.iterator();
-			while (iterator.hasNext()) {
-				Row nextRow = iterator.next();
-				Iterator<Cell> cellIterator = nextRow.cellIterator();
-
-				while (cellIterator.hasNext()) {
-					Cell cell = cellIterator.next();
-
-					switch (cell.getCellTypeEnum()) {
-					case STRING:
-						System.out.print((cell.getRowIndex() + 1) + " : " + cell.getStringCellValue());
-						break;
-					case BOOLEAN:
-						System.out.print((cell.getRowIndex() + 1) + " : " + cell.getBooleanCellValue());
-						break;
-					case NUMERIC:
-						System.out.print((cell.getRowIndex() + 1) + " : " + cell.getNumericCellValue());
-						break;
-					default:
+			TestDataSheet data = getSheetData(sheetName);
+			for (int i = 0; i < data.getNumOfRows(); i++) {
+				for (int j = 0; j < data.getNumOfColumns(); j++) {
+					if (data.isBlank(i, j))
 						System.out.println("<Empty Cell>");
-					}
+					else
+						System.out.print((i + 1) + " : " + data.getValue(i, j));
 					System.out.print(" - ");
 				}
 				System.out.println();
@@ -791,20 +918,27 @@ public class ExcelLib implements ITestdataEnums {
 	 * @param completeReportDetails Linked Map of list which contains all the report
 	 *                              details
 	 * @param columnName            Number of columns required in the report
+	 * @note For a report created by createExcel() the records are appended i.e.
+	 *       the records already written by a previous call are skipped
 	 */
 	public void createReport(String sheetName, List<LinkedHashMap<String, String>> completeReportDetails,
 			String[] columnName) {
 		try {
 			String textToWrite = null;
 			int col = -1;
-			sheet = workbook.getSheet(sheetName);
+			ExcelReportWriter report = getReportWriter(sheetName);
+			if (report != null) {
+				report.appendRecords(completeReportDetails, columnName);
+				logger.info("Generated excel report");
+				return;
+			}
 			for (int i = 0; i < completeReportDetails.size(); i++) {
-				writeTo(i + 1, 0, String.valueOf(i + 1));
+				writeTo(sheetName, i + 1, 0, String.valueOf(i + 1));
 				for (int j = 1; j < columnName.length; j++) {
 					try {
-						col = getExcelColNum(columnName[j]);
+						col = getExcelColNum(getSheetData(sheetName), columnName[j]);
 						textToWrite = completeReportDetails.get(i).get(columnName[j]);
-						writeTo(i + 1, col, textToWrite);
+						writeTo(sheetName, i + 1, col, textToWrite);
 					} catch (IndexOutOfBoundsException e) {
 						logger.error("Unable to write " + textToWrite + " to row " + i + " and column " + col);
 					}
@@ -823,10 +957,14 @@ public class ExcelLib implements ITestdataEnums {
 	 */
 	public void genereateCoumnHeaders(String sheetName, String[] columnNames) {
 		try {
-			sheet = workbook.getSheet(sheetName);
+			ExcelReportWriter report = getReportWriter(sheetName);
+			if (report != null) {
+				report.writeHeader(columnNames);
+				return;
+			}
 			for (int i = 0; i < columnNames.length; i++)
-				writeTo(0, i, columnNames[i]);
-			setStyleAsBold(0);
+				writeTo(sheetName, 0, i, columnNames[i]);
+			setStyleAsBold(sheetName, 0);
 		} catch (Exception e) {
 			logger.error("Unable to write column headers for the excel report", e);
 		}
@@ -838,74 +976,52 @@ public class ExcelLib implements ITestdataEnums {
 	 * @param rw Row number to be made as bold
 	 * @note This is used to genereateCoumnHeaders and row number starts from 0
 	 */
-	private void setStyleAsBold(int rw) {
-		try {
-			Row row = sheet.getRow(rw);
+	private void setStyleAsBold(String sheetName, int rw) {
+		synchronized (writeLock) {
+			try {
+				applyPendingWrites();
+				Row row = getWorkbook().getSheet(sheetName).getRow(rw);
 
-			CellStyle style = workbook.createCellStyle();
-			Font font = workbook.createFont();
-			font.setBold(true);
-			style.setFont(font);
+				if (boldStyle == null) {
+					boldStyle = workbook.createCellStyle();
+					Font font = workbook.createFont();
+					font.setBold(true);
+					boldStyle.setFont(font);
+				}
 
-			for (int i = 0; i < row.getLastCellNum(); i++)
-				row.getCell(i).setCellStyle(style);
-		} catch (Exception e) {
-			logger.error("Unable to set row style as bold for row " + rw);
+				for (int i = 0; i < row.getLastCellNum(); i++)
+					row.getCell(i).setCellStyle(boldStyle);
+				isWorkbookModified = true;
+			} catch (Exception e) {
+				logger.error("Unable to set row style as bold for row " + rw);
+			}
 		}
 	}
 
 	/**
-	 * Method validateTestDataValueToFetchExist is Overloaded Function to handle
-	 * Single String
+	 * To count the values of a column in a single pass. The counts are cached on
+	 * the sheet until it is written to
 	 *
-	 * @param cellSepData
-	 * @return
+	 * @return counts Case insensitive map of the cell value to its number of
+	 *         occurrences
 	 */
-	private String validateTestDataValueToFetchExist(String cellSepData) {
-		try {
-			if (cellSepData != null) {
-				List<TestDataDefaultValues> enumTestDataValues = Arrays.asList(TestDataDefaultValues.values());
-				for (TestDataDefaultValues defaultValue : enumTestDataValues) {
-					if (cellSepData.contains(defaultValue.toString())) {
-						cellSepData = replaceDefaultValuesFromTestData(cellSepData);
-						logger.info("Returing Values for validateTestDataValueToFetchExist method : " + cellSepData);
-						break;
-					}
-
+	private Map<String, Integer> getValueCounts(TestDataSheet data, int col) {
+		Map<String, Integer> counts = data.getValueCounts(col);
+		if (counts == null) {
+			counts = new TreeMap<String, Integer>(String.CASE_INSENSITIVE_ORDER);
+			for (int row = 1; row < data.getNumOfRows(); row++) {
+				String text = getEntireCellValue(data, row, col);
+				if (text == null)
+					logger.debug("Execute flag is not specified");
+				else {
+					Integer count = counts.get(text);
+					counts.put(text, count == null ? 1 : count + 1);
 				}
 			}
-		} catch (Exception e) {
-			logger.error("Error occurred while execution validateTestDataValueToFetchExist method", e);
-		}
-		return cellSepData;
-	}
-
-	/**
-	 * @param inputValue
-	 * @return Replaces Default Values of Test Data to a required Value
-	 */
-	private String replaceDefaultValuesFromTestData(String inputValue) {
-		String returnValue = null;
-		try {
-			if (Pattern
-					.compile(Pattern.quote(TestDataDefaultValues.LOGIN_USERNAME.toString()), Pattern.CASE_INSENSITIVE)
-					.matcher(inputValue).find())
-				returnValue = configLib.getLoginUsername();
-			else if (Pattern
-					.compile(Pattern.quote(TestDataDefaultValues.LOGIN_PASSWORD.toString()), Pattern.CASE_INSENSITIVE)
-					.matcher(inputValue).find())
-				returnValue = configLib.getLoginPassword();
-			else if (Pattern.compile(Pattern.quote(TestDataDefaultValues.BROWSER.toString()), Pattern.CASE_INSENSITIVE)
-					.matcher(inputValue).find())
-				returnValue = configLib.getBrowser();
-			else
-				logger.error("Incorrect Value " + inputValue + " .We do not Support provided Test Data Value");
-		} catch (Exception e) {
-			logger.error("Execution of method replaceDefaultValuesFromTestData failed", e);
+			counts = Collections.unmodifiableMap(counts);
+			data.setValueCounts(col, counts);
 		}
-
-		logger.info("Old Value : " + inputValue + " - New Value is : " + returnValue);
-		return returnValue;
+		return counts;
 	}
 
 	/**
@@ -921,19 +1037,54 @@ public class ExcelLib implements ITestdataEnums {
 		int count = 0;
 		int col = -1;
 		try {
-			sheet = workbook.getSheet(sheetName);
-			col = getExcelColNum(columnName);
-			for (int row = 1; row < sheet.getPhysicalNumberOfRows(); row++) {
-				String text = getEntireCellValue(sheetName, columnName, row, col);
-				if (text == null)
-					logger.debug("Execute flag is not specified");
-				else if (text.equalsIgnoreCase(textToFind))
-					count++;
-			}
+			TestDataSheet data = getSheetData(sheetName);
+			col = getExcelColNum(data, columnName);
+			Integer occurences = getValueCounts(data, col).get(textToFind);
+			count = occurences == null ? 0 : occurences;
 			logger.info("Total number of scripts to be executed are " + count);
 		} catch (Exception e) {
 			logger.error("Unable to get total number of scripts to be executed", e);
 		}
 		return count;
 	}
+
+	/**
+	 * To count the values of a column e.g. the number of records per browser
+	 *
+	 * @param sheetName  Sheet name to fetch data from
+	 * @param columnName Column name whose values should be counted
+	 * @return counts Case insensitive map of the cell value to its number of
+	 *         occurrences. Returns an empty map if the sheet or the column
+	 *         doesn't exist
+	 */
+	public Map<String, Integer> getValueCounts(String sheetName, String columnName) {
+		try {
+			TestDataSheet data = getSheetData(sheetName);
+			return getValueCounts(data, getExcelColNum(data, columnName));
+		} catch (Exception e) {
+			logger.error("Unable to count the values of the column " + columnName, e);
+			return Collections.emptyMap();
+		}
+	}
+
+	/**
+	 * Rows of a script's record in a sheet of the snapshot. This is created for
+	 * every call instead of being stored in the fields so that the parallel
+	 * threads do not overwrite each other's position
+	 */
+	private static final class Cursor {
+
+		private final TestDataSheet data;
+		private final int startRow, endRow;
+
+		Cursor(TestDataSheet data, int startRow, int endRow) {
+			this.data = data;
+			this.startRow = startRow;
+			this.endRow = endRow;
+		}
+
+		int size() {
+			return endRow - startRow;
+		}
+	}
 }
@@ -0,0 +1,134 @@
+/* ExcelReportWriter streams the rows of an excel report to the file as they are added
+ * Guideline: This is used by ExcelLib to generate the excel report. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class writes an excel report using the streaming (SXSSF) API of POI.
+ * Only the last ROW_ACCESS_WINDOW rows are kept in memory, the older rows are
+ * flushed to a temporary file, so the memory used is the same irrespective of
+ * the number of rows in the report. The cell styles are created once and
+ * shared by all the cells
+ */
+public class ExcelReportWriter {
+
+	public static final int ROW_ACCESS_WINDOW = 100;
+	public static final String BOLD = "Bold";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final File file;
+	private final String sheetName;
+	private final SXSSFWorkbook workbook;
+	private final SXSSFSheet sheet;
+	private final Map<String, CellStyle> styles = new HashMap<String, CellStyle>();
+	private final Map<String, Integer> columns = new HashMap<String, Integer>();
+	private int nextRow = 1, numOfRecords = 0;
+
+	/**
+	 * @param file      Excel file to which the report is written when it is closed
+	 * @param sheetName Name of the sheet of the report
+	 */
+	public ExcelReportWriter(File file, String sheetName) {
+		this.file = file;
+		this.sheetName = sheetName;
+		this.workbook = new SXSSFWorkbook(ROW_ACCESS_WINDOW);
+		this.workbook.setCompressTempFiles(true);
+		this.sheet = workbook.createSheet(sheetName);
+	}
+
+	/**
+	 * @return Returns the name of the sheet of the report
+	 */
+	public String getSheetName() {
+		return sheetName;
+	}
+
+	/**
+	 * To write the column headers in the first row in bold
+	 *
+	 * @param columnNames Name of the columns
+	 */
+	public synchronized void writeHeader(String[] columnNames) {
+		Row row = sheet.createRow(0);
+		for (int i = 0; i < columnNames.length; i++) {
+			Cell cell = row.createCell(i);
+			cell.setCellValue(columnNames[i]);
+			cell.setCellStyle(getStyle(BOLD));
+			columns.put(columnNames[i].trim(), i);
+		}
+	}
+
+	/**
+	 * To append the records of the report which are not yet written. The first
+	 * column holds the serial number of the record
+	 *
+	 * @param completeReportDetails All the records of the report. The records
+	 *                              written by a previous call are skipped
+	 * @param columnName            Name of the columns. The value of each column is
+	 *                              fetched from the record using the column name
+	 */
+	public synchronized void appendRecords(List<? extends Map<String, String>> completeReportDetails,
+			String[] columnName) {
+		for (int i = numOfRecords; i < completeReportDetails.size(); i++) {
+			Row row = sheet.createRow(nextRow++);
+			row.createCell(0).setCellValue(String.valueOf(i + 1));
+			for (int j = 1; j < columnName.length; j++) {
+				Integer col = columns.get(columnName[j].trim());
+				String textToWrite = completeReportDetails.get(i).get(columnName[j]);
+				if (textToWrite != null)
+					row.createCell(col == null ? j : col).setCellValue(textToWrite);
+			}
+			numOfRecords++;
+		}
+	}
+
+	/**
+	 * To get a shared cell style
+	 *
+	 * @param styleName Name of the style e.g. BOLD
+	 * @return style Returns the style which is created on the first call
+	 */
+	public synchronized CellStyle getStyle(String styleName) {
+		CellStyle style = styles.get(styleName);
+		if (style == null) {
+			style = workbook.createCellStyle();
+			if (BOLD.equals(styleName)) {
+				Font font = workbook.createFont();
+				font.setBold(true);
+				style.setFont(font);
+			}
+			styles.put(styleName, style);
+		}
+		return style;
+	}
+
+	/**
+	 * To write the report to the file and delete the temporary files
+	 */
+	public synchronized void close() throws Exception {
+		try (FileOutputStream fos = new FileOutputStream(file)) {
+			workbook.write(fos);
+			logger.info("Wrote " + numOfRecords + " record(s) to the excel report " + file.getPath());
+		} finally {
+			workbook.dispose();
+			workbook.close();
+		}
+	}
+}
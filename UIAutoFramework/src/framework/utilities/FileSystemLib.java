@@ -11,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -219,24 +220,48 @@ public class FileSystemLib {
 		boolean found = false;
 		ConfigurationLib configLib = new ConfigurationLib();
 		try {
-			ArrayList<String> files = null;
-			for (int i = 0; i < Integer.parseInt(configLib.getRetryAttempts()); i++) {
-				files = (ArrayList<String>) getFilesInFolder(path);
-				if (files.contains(fileName)) {
-					found = true;
-					logger.info(fileName + " is present in " + path);
-					Thread.sleep(2500);
-					break;
-				}
-				else {
-					logger.warn(fileName + " not found in " + path + ". Trying " + (i + 1) + " more time...");
-					Thread.sleep(1000 * Integer.parseInt(configLib.getRetryDelay()));
-				}
+			long waitTime = TimeUnit.SECONDS.toMillis(
+					Long.parseLong(configLib.getRetryAttempts()) * Long.parseLong(configLib.getRetryDelay()));
+			File file = new File(path, fileName);
+			found = new WaitLib().until("FileSystemLib.waitUntilFileIsDownloaded",
+					fileName + " to be downloaded in " + path,
+					() -> file.isFile(), waitTime);
+			if (found) {
+				logger.info(fileName + " is present in " + path);
+				waitUntilFileIsComplete(file, waitTime);
 			}
+			else
+				logger.warn(fileName + " not found in " + path);
 		}
 		catch (Exception e) {
 			logger.error("Unable to wait until the file is downloaded");
 		}
 		return found;
 	}
+
+	/**
+	 * To wait until a file which is being downloaded is completely written i.e.
+	 * the browser's partial download file is gone and the size of the file has
+	 * not changed between two checks
+	 *
+	 * @param file
+	 *            File which is being downloaded
+	 * @param waitTime
+	 *            Maximum time in milliseconds to wait
+	 */
+	private void waitUntilFileIsComplete(File file, long waitTime) throws InterruptedException {
+		long[] lastSize = { -1 };
+		File[] partialFiles = { new File(file.getPath() + ".crdownload"), new File(file.getPath() + ".part") };
+		WaitLib wait = new WaitLib(new WaitLib.Fixed("FileSize", 250));
+		boolean complete = wait.until("FileSystemLib.waitUntilFileIsComplete", file.getName() + " to be complete",
+				() -> {
+					long size = file.length();
+					boolean stable = size > 0 && size == lastSize[0] && !partialFiles[0].exists()
+							&& !partialFiles[1].exists();
+					lastSize[0] = size;
+					return stable;
+				}, waitTime);
+		if (!complete)
+			logger.warn(file.getName() + " is still being written after " + waitTime + " ms");
+	}
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+/* FormFillLib fills all the fields of a form in a single script execution
+ * Guideline: This is used by UIActionsLib.fillForm(). Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * This class finds all the fields of a form, checks that they are displayed and
+ * enabled and sets their values with one executeScript call. Text fields are
+ * set through the native value setter followed by input and change events, so
+ * the frameworks listening to the field see the change. A select is set by the
+ * visible text (or value) of an option and a checkbox / radio button is
+ * clicked if its state has to change. The fields which should be typed with
+ * native keystrokes are only checked, their kind is returned so that the
+ * caller can fill them
+ */
+public class FormFillLib {
+
+	public static final String SET = "set", NATIVE = "native";
+	public static final String SELECT = "select", CHECKBOX = "checkbox", TEXT = "text";
+
+	private static final String FILL_FORM = ElementStateLib.FIND_ELEMENT
+			+ "var fields = arguments[0], results = {};"
+			+ "function kindOf(e) {"
+			+ "  var tag = e.tagName.toLowerCase(), type = (e.type || '').toLowerCase();"
+			+ "  if (tag == 'select') return 'select';"
+			+ "  if (tag == 'input' && (type == 'checkbox' || type == 'radio')) return 'checkbox';"
+			+ "  return 'text';"
+			+ "}"
+			+ "function fire(e, name) {"
+			+ "  var event = document.createEvent('HTMLEvents');"
+			+ "  event.initEvent(name, true, true);"
+			+ "  e.dispatchEvent(event);"
+			+ "}"
+			+ "function setValue(e, kind, text) {"
+			+ "  if (kind == 'select') {"
+			+ "    for (var i = 0; i < e.options.length; i++) {"
+			+ "      var option = e.options[i];"
+			+ "      if ((option.text || '').trim() == text.trim() || option.value == text) {"
+			+ "        e.selectedIndex = i; fire(e, 'input'); fire(e, 'change'); return 'set';"
+			+ "      }"
+			+ "    }"
+			+ "    return 'option ' + text + ' not found';"
+			+ "  }"
+			+ "  if (kind == 'checkbox') {"
+			+ "    var check = ['true', 'yes', '1', 'on', 'checked'].indexOf(text.trim().toLowerCase()) >= 0;"
+			+ "    if (e.checked != check) e.click();"
+			+ "    return 'set';"
+			+ "  }"
+			+ "  if (e.isContentEditable) {"
+			+ "    e.textContent = text;"
+			+ "  } else {"
+			+ "    var proto = Object.getPrototypeOf(e), descriptor;"
+			+ "    while (proto && !(descriptor = Object.getOwnPropertyDescriptor(proto, 'value')))"
+			+ "      proto = Object.getPrototypeOf(proto);"
+			+ "    if (descriptor && descriptor.set) descriptor.set.call(e, text); else e.value = text;"
+			+ "  }"
+			+ "  fire(e, 'input'); fire(e, 'change');"
+			+ "  return 'set';"
+			+ "}"
+			+ "for (var f = 0; f < fields.length; f++) {"
+			+ "  var field = fields[f], result = results[field.name] = {};"
+			+ "  try {"
+			+ "    var e = find(field.type, field.value);"
+			+ "    if (!e) { result.status = 'not found'; continue; }"
+			+ "    result.kind = kindOf(e);"
+			+ "    if (!isDisplayed(e)) result.status = 'not displayed';"
+			+ "    else if (e.disabled || e.readOnly) result.status = 'not enabled';"
+			+ "    else if (field.isNative == 'true') result.status = 'native';"
+			+ "    else result.status = setValue(e, result.kind, field.text);"
+			+ "  } catch (err) {"
+			+ "    result.status = String(err);"
+			+ "  }"
+			+ "}"
+			+ "return results;";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * To fill the fields of a form
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param prpOR
+	 *            Object repository (OR) of the script
+	 * @param fields
+	 *            Map of element name in the OR to the value to be set
+	 * @param nativeFields
+	 *            Element names which should not be set by the script
+	 * @return results Returns a map of element name to a map with the status (set,
+	 *         native or the reason why it is not set) and the kind of the field
+	 *         (select, checkbox or text)
+	 * @throws Exception
+	 *             if an element doesn't exist in the OR or its locator type is
+	 *             unknown
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, Map<String, Object>> fill(WebDriver driver, Properties prpOR, Map<String, String> fields,
+			Collection<String> nativeFields) throws Exception {
+		List<Map<String, String>> queries = new ArrayList<Map<String, String>>();
+		for (Map.Entry<String, String> field : fields.entrySet()) {
+			Map<String, String> query = ElementStateLib.toQuery(prpOR, field.getKey());
+			query.put("text", field.getValue());
+			query.put("isNative", String.valueOf(nativeFields.contains(field.getKey())));
+			queries.add(query);
+		}
+		long startTime = System.currentTimeMillis();
+		Map<String, Object> results = (Map<String, Object>) ((JavascriptExecutor) driver).executeScript(FILL_FORM,
+				queries);
+		Map<String, Map<String, Object>> fieldResults = new LinkedHashMap<String, Map<String, Object>>();
+		for (String ele : fields.keySet())
+			fieldResults.put(ele, (Map<String, Object>) results.get(ele));
+		logger.info("Filled " + fields.size() + " field(s) in " + (System.currentTimeMillis() - startTime) + " ms");
+		return fieldResults;
+	}
+}
@@ -0,0 +1,121 @@
+/* LatencyHistogram records latencies and reports their percentiles
+ * Guideline: This is used by WaitLib and ActionTimingLib. Use it for any other latency which is reported.
+ */
+
+package framework.utilities;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class is a log linear latency histogram in microseconds. Every power of
+ * two is split in to 8 buckets, so a percentile is accurate to 12.5%. It can be
+ * recorded in to from any thread without a lock
+ *
+ * @note The latencies are recorded in nanoseconds and reported in milliseconds
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKETS = 8, SUB_BUCKET_BITS = 3;
+	private static final int NUM_OF_BUCKETS = SUB_BUCKETS * 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(NUM_OF_BUCKETS);
+	private final LongAdder count = new LongAdder(), totalTime = new LongAdder();
+	private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param timeTaken Latency in nanoseconds
+	 */
+	public void record(long timeTaken) {
+		buckets.incrementAndGet(getBucket(TimeUnit.NANOSECONDS.toMicros(timeTaken)));
+		count.increment();
+		totalTime.add(timeTaken);
+		maxTime.accumulate(timeTaken);
+	}
+
+	/**
+	 * To add the latencies recorded by another histogram
+	 *
+	 * @param other Histogram to be added
+	 */
+	public void add(LatencyHistogram other) {
+		for (int i = 0; i < NUM_OF_BUCKETS; i++)
+			buckets.addAndGet(i, other.buckets.get(i));
+		count.add(other.count.sum());
+		totalTime.add(other.totalTime.sum());
+		maxTime.accumulate(other.maxTime.get());
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return Returns the total time in nanoseconds
+	 */
+	public long getTotalTime() {
+		return totalTime.sum();
+	}
+
+	/**
+	 * @return Returns the average in milliseconds. Returns 0 if nothing is
+	 *         recorded
+	 */
+	public double getAverage() {
+		long total = getCount();
+		return total == 0 ? 0 : toMillis(getTotalTime() / total);
+	}
+
+	/**
+	 * @return Returns the maximum in milliseconds
+	 */
+	public double getMax() {
+		return toMillis(maxTime.get());
+	}
+
+	/**
+	 * @param percentile Percentile e.g. 50, 90 or 99
+	 * @return Returns the upper bound in milliseconds of the bucket containing the
+	 *         percentile, capped at the maximum. Returns 0 if nothing is recorded
+	 */
+	public double getPercentile(double percentile) {
+		long total = getCount(), seen = 0, max = maxTime.get();
+		for (int i = 0; i < NUM_OF_BUCKETS; i++) {
+			seen += buckets.get(i);
+			if (seen > 0 && seen * 100.0 >= percentile * total)
+				return toMillis(Math.min(TimeUnit.MICROSECONDS.toNanos(getUpperBound(i)), max));
+		}
+		return toMillis(max);
+	}
+
+	private static int getBucket(long micros) {
+		if (micros < SUB_BUCKETS)
+			return (int) Math.max(micros, 0);
+		int exponent = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+		int subBucket = (int) (micros >> exponent) - SUB_BUCKETS;
+		return Math.min(SUB_BUCKETS * (exponent + 1) + subBucket, NUM_OF_BUCKETS - 1);
+	}
+
+	private static long getUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS)
+			return bucket + 1;
+		int exponent = bucket / SUB_BUCKETS - 1;
+		return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS + 1) << exponent;
+	}
+
+	/**
+	 * @param nanos Time in nanoseconds
+	 * @return Returns the time in milliseconds rounded to a microsecond
+	 */
+	public static double toMillis(long nanos) {
+		return Math.round(nanos / 1000.0) / 1000.0;
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + getCount() + ", avg=" + getAverage() + " ms, p50<=" + getPercentile(50) + " ms, p90<="
+				+ getPercentile(90) + " ms, p99<=" + getPercentile(99) + " ms, max=" + getMax() + " ms";
+	}
+}
@@ -0,0 +1,299 @@
+/* LocatorCache keeps the locators of the object repository (OR) parsed in to By objects
+ * Guideline: This is used by UIActionsLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * This class parses every "locatorType#locatorValue" entry of the object
+ * repository in to a By object once, when it is loaded, so resolving a
+ * locator is a single map lookup. The map is immutable and is replaced (copy
+ * on write) when an entry is invalidated, so it can be read without locking.
+ * PropertiesLib.updateProperty() and appendProperty() invalidate the entry
+ * they modify and the entry is parsed again on the next lookup.
+ *
+ * A locator can be a template with the placeholders TBU1, TBU2 ... e.g.
+ * xpath#//tr[TBU1]/td[TBU2]. The locators resolved from a template are kept in
+ * a least recently used cache shared by all the scripts, keyed by the template
+ * and the values, so the OR itself is never modified for a dynamic element
+ */
+public class LocatorCache {
+
+	public static final String PLACEHOLDER = "TBU";
+	private static final int MAX_RESOLVED_TEMPLATES = 512;
+
+	private static final Map<List<String>, By> resolvedTemplates = new LinkedHashMap<List<String>, By>(16, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<List<String>, By> eldest) {
+			return size() > MAX_RESOLVED_TEMPLATES;
+		}
+	};
+	private static final Set<LocatorCache> caches = Collections
+			.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<LocatorCache, Boolean>()));
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Properties repository;
+	private volatile Map<String, By> locators;
+
+	/**
+	 * @param repository Object repository (OR) whose locators are parsed
+	 */
+	public LocatorCache(Properties repository) {
+		this(repository, null);
+	}
+
+	/**
+	 * @param repository Object repository (OR) whose locators are parsed
+	 * @param base       Locators of the shared OR backing the repository. Only the
+	 *                   entries of the repository itself are parsed, the rest are
+	 *                   shared with the base. Pass null if there is no base
+	 */
+	public LocatorCache(Properties repository, LocatorCache base) {
+		this.repository = repository;
+		long startTime = System.currentTimeMillis();
+		Map<String, By> parsed = new HashMap<String, By>();
+		Set<String> names = repository.stringPropertyNames();
+		if (base != null) {
+			parsed.putAll(base.locators);
+			names = new HashSet<String>();
+			for (Object key : repository.keySet())
+				names.add(key.toString());
+		}
+		for (String ele : names) {
+			try {
+				parsed.put(ele, parse(repository.getProperty(ele)));
+			} catch (Exception e) {
+				parsed.remove(ele);
+				logger.debug("Unable to parse the locator of " + ele + ": " + e.getMessage());
+			}
+		}
+		locators = Collections.unmodifiableMap(parsed);
+		caches.add(this);
+		logger.debug("Parsed " + parsed.size() + " locators in " + (System.currentTimeMillis() - startTime) + " ms");
+	}
+
+	/**
+	 * To get the locator of an element
+	 *
+	 * @param ele Element name in the OR
+	 * @return Returns the By object of the element
+	 * @throws Exception if the element doesn't exist in the OR or its locator type
+	 *                   is unknown
+	 */
+	public By getLocator(String ele) throws Exception {
+		By locator = locators.get(ele);
+		if (locator == null) {
+			String value = repository.getProperty(ele);
+			if (value == null)
+				throw new Exception("Object doesn't exist. Please check the object: " + ele + " in the object repository");
+			locator = parse(value);
+			synchronized (this) {
+				Map<String, By> updated = new HashMap<String, By>(locators);
+				updated.put(ele, locator);
+				locators = Collections.unmodifiableMap(updated);
+			}
+		}
+		return locator;
+	}
+
+	/**
+	 * To get the locator of a dynamic element from a template
+	 *
+	 * @param ele    Element name in the OR whose locator has the placeholders
+	 *               TBU1, TBU2 ...
+	 * @param values Values of the placeholders in order i.e. the first value
+	 *               replaces TBU1
+	 * @return Returns the By object of the element
+	 * @throws Exception if the element doesn't exist in the OR or its locator type
+	 *                   is unknown
+	 */
+	public By getLocator(String ele, String... values) throws Exception {
+		if (values == null || values.length == 0)
+			return getLocator(ele);
+		String template = repository.getProperty(ele);
+		if (template == null)
+			throw new Exception("Object doesn't exist. Please check the object: " + ele + " in the object repository");
+		List<String> key = new ArrayList<String>(values.length + 1);
+		key.add(template);
+		key.addAll(Arrays.asList(values));
+		By locator;
+		synchronized (resolvedTemplates) {
+			locator = resolvedTemplates.get(key);
+		}
+		if (locator == null) {
+			String resolved = template;
+			for (int i = values.length; i > 0; i--)
+				resolved = resolved.replace(PLACEHOLDER + i, values[i - 1]);
+			locator = parse(resolved);
+			synchronized (resolvedTemplates) {
+				resolvedTemplates.put(key, locator);
+			}
+		}
+		return locator;
+	}
+
+	/**
+	 * To make an element resolve to one of the elements matching its locator. This
+	 * applies only to this cache i.e. to the script, the OR is not modified
+	 *
+	 * @param ele   Element name in the OR
+	 * @param index Index (starting at 0) of the element among the elements
+	 *              matching the locator
+	 * @throws Exception if the element doesn't exist in the OR or its locator type
+	 *                   is unknown
+	 */
+	public void pin(String ele, int index) throws Exception {
+		By locator = new ByIndex(parse(repository.getProperty(ele)), index);
+		synchronized (this) {
+			Map<String, By> updated = new HashMap<String, By>(locators);
+			updated.put(ele, locator);
+			locators = Collections.unmodifiableMap(updated);
+		}
+	}
+
+	private synchronized void remove(String ele) {
+		if (locators.containsKey(ele)) {
+			Map<String, By> updated = new HashMap<String, By>(locators);
+			updated.remove(ele);
+			locators = Collections.unmodifiableMap(updated);
+		}
+	}
+
+	/**
+	 * To invalidate the parsed locator of an element after it is modified in the
+	 * OR. This is called by PropertiesLib
+	 *
+	 * @param repository Properties which is modified
+	 * @param ele        Element name which is modified
+	 */
+	public static void invalidate(Properties repository, String ele) {
+		synchronized (caches) {
+			for (LocatorCache cache : caches) {
+				if (cache.repository == repository)
+					cache.remove(ele);
+			}
+		}
+	}
+
+	/**
+	 * To parse a locator
+	 *
+	 * @param locator Locator in the format locatorType#locatorValue
+	 * @return By.<locator-type>(locatorValue) Here the loator type can be id, name,
+	 *         classname, tagname, linktext, partiallinktext, cssselector, or xpath
+	 * @throws Exception if the locator type is unknown
+	 */
+	public static By parse(String locator) throws Exception {
+		String[] typeAndValue = split(locator);
+		String locatorValue = typeAndValue[1];
+		switch (typeAndValue[0]) {
+		case "id":
+			return By.id(locatorValue);
+		case "name":
+			return By.name(locatorValue);
+		case "classname":
+			return By.className(locatorValue);
+		case "tagname":
+			return By.tagName(locatorValue);
+		case "linktext":
+			return By.linkText(locatorValue);
+		case "partiallinktext":
+			return By.partialLinkText(locatorValue);
+		case "cssselector":
+			return By.cssSelector(locatorValue);
+		default:
+			return By.xpath(locatorValue);
+		}
+	}
+
+	/**
+	 * To split a locator in to its type and value
+	 *
+	 * @param locator Locator in the format locatorType#locatorValue
+	 * @return typeAndValue Returns the locator type in lower case with the short
+	 *         forms (class, tag, link, partiallink, css) expanded, followed by the
+	 *         locator value
+	 * @throws Exception if the locator type is unknown
+	 */
+	public static String[] split(String locator) throws Exception {
+		int separator = locator.indexOf('#');
+		if (separator < 0)
+			throw new Exception("Locator '" + locator + "' is not in the format locatorType#locatorValue");
+		String locatorType = locator.substring(0, separator);
+		String locatorValue = locator.substring(separator + 1);
+
+		switch (locatorType.toLowerCase()) {
+		case "id":
+		case "name":
+		case "classname":
+		case "tagname":
+		case "linktext":
+		case "partiallinktext":
+		case "cssselector":
+		case "xpath":
+			return new String[] { locatorType.toLowerCase(), locatorValue };
+		case "class":
+			return new String[] { "classname", locatorValue };
+		case "tag":
+			return new String[] { "tagname", locatorValue };
+		case "link":
+			return new String[] { "linktext", locatorValue };
+		case "partiallink":
+			return new String[] { "partiallinktext", locatorValue };
+		case "css":
+			return new String[] { "cssselector", locatorValue };
+		default:
+			throw new Exception("Unknown locator type '" + locatorType + "'");
+		}
+	}
+
+	/**
+	 * Locator which finds the element at an index among the elements found by
+	 * another locator
+	 */
+	private static final class ByIndex extends By {
+
+		private final By locator;
+		private final int index;
+
+		ByIndex(By locator, int index) {
+			this.locator = locator;
+			this.index = index;
+		}
+
+		@Override
+		public List<WebElement> findElements(SearchContext context) {
+			List<WebElement> elements = locator.findElements(context);
+			if (elements.size() <= index)
+				return Collections.emptyList();
+			return Collections.singletonList(elements.get(index));
+		}
+
+		@Override
+		public String toString() {
+			return locator + "[" + index + "]";
+		}
+	}
+}
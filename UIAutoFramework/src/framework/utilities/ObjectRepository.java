@@ -0,0 +1,171 @@
+/* ObjectRepository holds the object repository (OR), SQL and pop up message properties shared by all the scripts
+ * Guideline: This is used by PageFactory. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * This class reads the OR, SQL and pop up message properties files once per
+ * execution and shares them read only across all the scripts and threads. Each
+ * script gets an overlay i.e. an empty Properties object backed by the shared
+ * one. The dynamic (TBU) values updated by a script are written to its overlay,
+ * so they are neither seen by the other scripts nor left behind for the next
+ * iteration, and setUp() doesn't read or copy any file
+ */
+public class ObjectRepository {
+
+	private static ObjectRepository shared;
+
+	private final Properties objects, queries, messages;
+	private final LocatorCache locators;
+
+	private ObjectRepository(ConfigurationLib configLib) {
+		PropertiesLib property = new PropertiesLib();
+		objects = new ReadOnlyProperties(property.readProperties(configLib.getORPath()));
+		queries = new ReadOnlyProperties(property.readProperties(configLib.getSQLPath()));
+		messages = new ReadOnlyProperties(property.readProperties(configLib.getPopUpMessagePath()));
+		locators = new LocatorCache(objects);
+	}
+
+	/**
+	 * To get the shared repository. The properties files are read by the first
+	 * call
+	 *
+	 * @return shared Returns the shared repository
+	 */
+	public static synchronized ObjectRepository getShared() {
+		if (shared == null) {
+			long startTime = System.currentTimeMillis();
+			shared = new ObjectRepository(new ConfigurationLib());
+			LoggerFactory.getLogger(ObjectRepository.class).info("Loaded the object repository, SQL and pop up message"
+					+ " properties in " + (System.currentTimeMillis() - startTime) + " ms");
+		}
+		return shared;
+	}
+
+	/**
+	 * @return Returns a new overlay of the object repository (OR) for a script
+	 */
+	public Properties newObjectsOverlay() {
+		return new Properties(objects);
+	}
+
+	/**
+	 * @return Returns a new overlay of the SQL properties for a script
+	 */
+	public Properties newQueriesOverlay() {
+		return new Properties(queries);
+	}
+
+	/**
+	 * @return Returns a new overlay of the pop up message properties for a script
+	 */
+	public Properties newMessagesOverlay() {
+		return new Properties(messages);
+	}
+
+	/**
+	 * @return Returns the parsed locators of the shared object repository (OR)
+	 */
+	public LocatorCache getLocators() {
+		return locators;
+	}
+
+	/**
+	 * Properties which can't be modified once they are copied. An overlay should be
+	 * used to modify a value
+	 */
+	private static final class ReadOnlyProperties extends Properties {
+
+		private static final long serialVersionUID = 1L;
+
+		private final boolean loaded;
+
+		ReadOnlyProperties(Properties properties) {
+			for (String name : properties.stringPropertyNames())
+				super.put(name, properties.getProperty(name));
+			loaded = true;
+		}
+
+		private UnsupportedOperationException readOnly() {
+			return new UnsupportedOperationException("The shared properties are read only. Update the overlay instead");
+		}
+
+		@Override
+		public synchronized Object put(Object key, Object value) {
+			if (loaded)
+				throw readOnly();
+			return super.put(key, value);
+		}
+
+		@Override
+		public synchronized void putAll(Map<?, ?> t) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object remove(Object key) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized boolean remove(Object key, Object value) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized void clear() {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object putIfAbsent(Object key, Object value) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object replace(Object key, Object value) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized boolean replace(Object key, Object oldValue, Object newValue) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized void replaceAll(BiFunction<? super Object, ? super Object, ?> function) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object compute(Object key,
+				BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object computeIfAbsent(Object key, Function<? super Object, ? extends Object> mappingFunction) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object computeIfPresent(Object key,
+				BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+			throw readOnly();
+		}
+
+		@Override
+		public synchronized Object merge(Object key, Object value,
+				BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+			throw readOnly();
+		}
+	}
+}
@@ -0,0 +1,196 @@
+/* PageReadyLib waits for a page to become idle using a script injected in to the page
+ * Guideline: This is used by UIActionsLib.waitUntilPageLoad(). Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import framework.constants.IFrameworkConstants.ActionPhase;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class injects a small instrumentation script in to the page which
+ * counts the XHR and fetch requests in flight and records the last time nodes
+ * were added to or removed from the DOM. The page is ready when
+ * document.readyState is complete, there are no requests in flight (including
+ * jQuery.active) and no nodes have been added or removed for the quiet period.
+ * Attribute and text changes e.g. clocks, spinners and animations are ignored. The wait is a single asynchronous script call,
+ * so it returns as soon as the page is idle instead of polling from the test
+ *
+ * @note The script is injected once per document. A navigation loads a new
+ *       document, so it is injected again by the next wait and the document gets
+ *       a new id. The id of the last document seen by the wait is kept per driver
+ * @note A navigation during the wait unloads the script. The wait is then run
+ *       again in the new document for the rest of the time out
+ */
+public class PageReadyLib {
+
+	private static final long SCRIPT_TIME_OUT_MARGIN = 5000;
+
+	private static final String WAIT_FOR_PAGE_READY = "var timeOut = arguments[0], quietPeriod = arguments[1],"
+			+ "  callback = arguments[arguments.length - 1], w = window;"
+			+ "if (!w.__uiAutoReady) {"
+			+ "  var state = w.__uiAutoReady = { id: Date.now() + '-' + Math.random(), pending: 0,"
+			+ "    lastChange: Date.now() };"
+			+ "  var touch = function () { state.lastChange = Date.now(); };"
+			+ "  if (w.XMLHttpRequest) {"
+			+ "    var send = w.XMLHttpRequest.prototype.send;"
+			+ "    w.XMLHttpRequest.prototype.send = function () {"
+			+ "      var done = false, end = function () { if (!done) { done = true; state.pending--; touch(); } };"
+			+ "      state.pending++; touch();"
+			+ "      this.addEventListener('loadend', end);"
+			+ "      try { return send.apply(this, arguments); } catch (e) { end(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  if (w.fetch) {"
+			+ "    var fetch = w.fetch;"
+			+ "    w.fetch = function () {"
+			+ "      var end = function () { state.pending--; touch(); };"
+			+ "      state.pending++; touch();"
+			+ "      try {"
+			+ "        return fetch.apply(this, arguments).then("
+			+ "          function (response) { end(); return response; }, function (e) { end(); throw e; });"
+			+ "      } catch (e) { end(); throw e; }"
+			+ "    };"
+			+ "  }"
+			+ "  if (w.MutationObserver && document.documentElement)"
+			+ "    new w.MutationObserver(touch).observe(document.documentElement,"
+			+ "      { childList: true, subtree: true });"
+			+ "}"
+			+ "var ready = w.__uiAutoReady, startTime = Date.now();"
+			+ "(function check() {"
+			+ "  var now = Date.now();"
+			+ "  var busy = document.readyState != 'complete' ? 'the document is loading'"
+			+ "    : ready.pending > 0 ? ready.pending + ' request(s) are in flight'"
+			+ "    : w.jQuery && w.jQuery.active > 0 ? 'jQuery requests are in flight'"
+			+ "    : now - ready.lastChange < quietPeriod ? 'the DOM is still changing' : '';"
+			+ "  if (!busy)"
+			+ "    callback([true, ready.id, busy]);"
+			+ "  else if (now - startTime >= timeOut)"
+			+ "    callback([false, ready.id, busy]);"
+			+ "  else"
+			+ "    setTimeout(check, Math.max(10, Math.min(50, quietPeriod)));"
+			+ "})();";
+
+	private static final Map<WebDriver, Long> scriptTimeOuts = Collections
+			.synchronizedMap(new WeakHashMap<WebDriver, Long>());
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Map<WebDriver, String> documentIds = Collections
+			.synchronizedMap(new WeakHashMap<WebDriver, String>());
+
+	/**
+	 * To wait until the page is idle
+	 *
+	 * @param callSite
+	 *            Class and method which waits. The wait is recorded under it in
+	 *            the sleep audit
+	 * @param driver
+	 *            Browser driver object
+	 * @param timeOut
+	 *            Maximum time in milliseconds to wait for the page
+	 * @param quietPeriod
+	 *            Time in milliseconds for which the DOM should not change
+	 * @return ready Returns true if the page is idle. Returns false if the page is
+	 *         still busy after the time out
+	 */
+	public boolean waitUntilReady(String callSite, WebDriver driver, long timeOut, long quietPeriod) {
+		long startTime = System.currentTimeMillis(), startNanos = System.nanoTime();
+		List<?> result;
+		ActionPhase previousPhase = ActionTimingLib.enter(ActionPhase.WAIT);
+		try {
+			setScriptTimeout(driver, timeOut + SCRIPT_TIME_OUT_MARGIN);
+			while (true) {
+				long remaining = Math.max(timeOut - (System.currentTimeMillis() - startTime), 0);
+				try {
+					result = (List<?>) ((JavascriptExecutor) driver).executeAsyncScript(WAIT_FOR_PAGE_READY,
+							remaining, quietPeriod);
+					break;
+				}
+				catch (JavascriptException | ScriptTimeoutException e) {
+					if (System.currentTimeMillis() - startTime >= timeOut || !isNavigation(driver, e))
+						throw e;
+					logger.debug("The page was unloaded during the wait. Waiting for the new page");
+				}
+			}
+		}
+		finally {
+			ActionTimingLib.exit(previousPhase);
+		}
+		long timeTaken = System.currentTimeMillis() - startTime;
+		documentIds.put(driver, String.valueOf(result.get(1)));
+		WaitLib.record(callSite, System.nanoTime() - startNanos, 0, Boolean.TRUE.equals(result.get(0)));
+		if (Boolean.TRUE.equals(result.get(0))) {
+			logger.debug("Page is ready in " + timeTaken + " ms");
+			return true;
+		}
+		logger.warn("Page is still busy after " + timeTaken + " ms as " + result.get(2));
+		return false;
+	}
+
+	/**
+	 * To check whether the wait script failed because the browser navigated to
+	 * another document. A real script error is not a navigation
+	 *
+	 * @return Returns true if the error is an unload or navigation error or the
+	 *         document has changed since the last wait
+	 */
+	private boolean isNavigation(WebDriver driver, WebDriverException e) {
+		String message = String.valueOf(e.getMessage()).toLowerCase();
+		if (e instanceof ScriptTimeoutException || message.contains("unload") || message.contains("navigat"))
+			return true;
+		String lastDocumentId = documentIds.get(driver);
+		if (lastDocumentId == null)
+			return false;
+		try {
+			Object documentId = ((JavascriptExecutor) driver)
+					.executeScript("return window.__uiAutoReady ? window.__uiAutoReady.id : null;");
+			return !lastDocumentId.equals(String.valueOf(documentId));
+		}
+		catch (WebDriverException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * To set the script time out of the driver. The time out last set for a
+	 * driver is remembered, so it is sent to the browser only when it changes
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param timeOut
+	 *            Time out in milliseconds
+	 * @note The script time out must be set only through this method, otherwise
+	 *       the remembered value is wrong
+	 */
+	public static void setScriptTimeout(WebDriver driver, long timeOut) {
+		if (!Long.valueOf(timeOut).equals(scriptTimeOuts.get(driver))) {
+			driver.manage().timeouts().setScriptTimeout(timeOut, TimeUnit.MILLISECONDS);
+			scriptTimeOuts.put(driver, timeOut);
+		}
+	}
+
+	/**
+	 * To get the id of the document which was loaded in the browser during the last
+	 * wait
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @return documentId Returns the id or null if the driver has not waited yet
+	 */
+	public String getDocumentId(WebDriver driver) {
+		return documentIds.get(driver);
+	}
+}
@@ -70,6 +70,8 @@ public class PropertiesLib implements IFrameworkConstants {
 	 *            Is the previous string being replaced e.g. TBU - To be updated
 	 * @param newVal
 	 *            Is the new (dynamic) string being updated
+	 * @note For a dynamic element prefer a locator template with TBU1, TBU2 ...
+	 *       and UIActionsLib.getElement(driver, ele, values)
 	 */
 
 	public void updateProperty(Properties prpObj, String ele, String oldVal, String newVal) {
@@ -81,6 +83,7 @@ public class PropertiesLib implements IFrameworkConstants {
 			logger.debug("Current property value of " + ele + " is " + existingProp);
 			updatedProp = existingProp.replaceFirst(oldVal.trim(), newVal.trim());
 			prpObj.setProperty(ele, updatedProp);
+			LocatorCache.invalidate(prpObj, ele);
 			logger.info("Updated property value of " + ele + " is " + updatedProp);
 		}
 		catch (NullPointerException ne) {
@@ -112,6 +115,7 @@ public class PropertiesLib implements IFrameworkConstants {
 			logger.debug("Current property value of " + ele + " is " + existingProp);
 			updatedProp = existingProp + valToAppend;
 			prpObj.setProperty(ele, updatedProp);
+			LocatorCache.invalidate(prpObj, ele);
 			logger.info("Updated property value of " + ele + " is " + updatedProp);
 		}
 		catch (Exception e) {
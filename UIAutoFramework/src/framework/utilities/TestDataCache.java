@@ -0,0 +1,257 @@
+/* TestDataCache keeps a precompiled binary copy of the test data next to the workbook
+ * Guideline: This is used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * This class writes the sheets read from a workbook to a compact binary file
+ * (string table followed by the typed cells of each sheet, strings as string
+ * table indexes) and reads it back in one go on the next run. The cache file
+ * is keyed by the size, last modified time and CRC32 of the workbook, so it is
+ * discarded as soon as the workbook changes
+ *
+ * @note The cache file is named after the workbook i.e. TestData.xlsx.cache and
+ *       is rewritten whenever it is out of date. It is read in to the heap
+ *       rather than memory mapped, since a mapped file can't be replaced on
+ *       Windows until the mapping is garbage collected
+ */
+public class TestDataCache {
+
+	private static final int MAGIC = 0x54444331, VERSION = 2;
+	private static final int LAST_MODIFIED_OFFSET = 16;
+	private static final String EXTENSION = ".cache";
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * To read the sheets of a workbook from its cache file
+	 *
+	 * @param workbook   Workbook whose cache file should be read
+	 * @param sheetNames Names of the sheets which are needed
+	 * @return sheets Returns the sheets or null if the cache file doesn't exist,
+	 *         is out of date or doesn't contain all the sheets needed
+	 */
+	public Map<String, TestDataSheet> read(File workbook, Collection<String> sheetNames) {
+		File cacheFile = getCacheFile(workbook);
+		if (!cacheFile.exists())
+			return null;
+		long startTime = System.currentTimeMillis();
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cacheFile.toPath()));
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+				return null;
+			long size = buffer.getLong(), lastModified = buffer.getLong(), hash = buffer.getLong();
+			if (size != workbook.length())
+				return null;
+			boolean isTouched = lastModified != workbook.lastModified();
+			if (isTouched && hash != getHash(workbook))
+				return null;
+
+			Set<String> cachedSheetNames = new HashSet<String>();
+			int numOfSheetNames = buffer.getInt();
+			for (int i = 0; i < numOfSheetNames; i++)
+				cachedSheetNames.add(readString(buffer));
+			if (!cachedSheetNames.containsAll(sheetNames))
+				return null;
+
+			String[] strings = new String[buffer.getInt()];
+			for (int i = 0; i < strings.length; i++)
+				strings[i] = readString(buffer);
+
+			Map<String, TestDataSheet> sheets = new LinkedHashMap<String, TestDataSheet>();
+			int numOfSheets = buffer.getInt();
+			for (int i = 0; i < numOfSheets; i++) {
+				TestDataSheet sheet = readSheet(buffer, strings);
+				if (sheetNames.contains(sheet.getName()))
+					sheets.put(sheet.getName(), sheet);
+			}
+			if (isTouched)
+				updateLastModified(cacheFile, workbook.lastModified());
+			logger.info("Read " + sheets.size() + " sheet(s) from " + cacheFile.getName() + " in "
+					+ (System.currentTimeMillis() - startTime) + " ms");
+			return sheets;
+		} catch (Exception e) {
+			logger.warn("Unable to read the test data cache " + cacheFile.getPath() + ". The workbook will be read", e);
+			return null;
+		}
+	}
+
+	/**
+	 * To write the sheets of a workbook to its cache file. Failures are logged and
+	 * ignored since the workbook can always be read again
+	 *
+	 * @param workbook   Workbook from which the sheets are read
+	 * @param sheetNames Names of the sheets which were requested
+	 * @param sheets     Sheets read from the workbook
+	 */
+	public void write(File workbook, Collection<String> sheetNames, Map<String, TestDataSheet> sheets) {
+		File cacheFile = getCacheFile(workbook);
+		File tempFile = new File(cacheFile.getPath() + "." + Thread.currentThread().getId() + ".tmp");
+		try {
+			long size = workbook.length(), lastModified = workbook.lastModified(), hash = getHash(workbook);
+			List<String> strings = new ArrayList<String>();
+			Map<String, Integer> stringIds = new HashMap<String, Integer>();
+			for (TestDataSheet sheet : sheets.values()) {
+				for (int col = 0; col < sheet.getNumOfColumns(); col++) {
+					for (int row = 0; row < sheet.getNumOfRows(); row++) {
+						if (sheet.getType(row, col) != TestDataSheet.STRING)
+							continue;
+						String value = sheet.getString(row, col);
+						if (!stringIds.containsKey(value)) {
+							stringIds.put(value, strings.size());
+							strings.add(value);
+						}
+					}
+				}
+			}
+
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeLong(size);
+				out.writeLong(lastModified);
+				out.writeLong(hash);
+				out.writeInt(sheetNames.size());
+				for (String sheetName : sheetNames)
+					writeString(out, sheetName);
+				out.writeInt(strings.size());
+				for (String value : strings)
+					writeString(out, value);
+				out.writeInt(sheets.size());
+				for (TestDataSheet sheet : sheets.values())
+					writeSheet(out, sheet, stringIds);
+			}
+			Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			logger.info("Created the test data cache " + cacheFile.getPath());
+		} catch (Exception e) {
+			tempFile.delete();
+			logger.warn("Unable to create the test data cache " + cacheFile.getPath(), e);
+		}
+	}
+
+	/**
+	 * To store the last modified time of a workbook which was touched but not
+	 * changed, so that it isn't hashed again on the next run
+	 *
+	 * @param cacheFile    Cache file of the workbook
+	 * @param lastModified Last modified time of the workbook
+	 */
+	private void updateLastModified(File cacheFile, long lastModified) {
+		try (RandomAccessFile file = new RandomAccessFile(cacheFile, "rw")) {
+			file.seek(LAST_MODIFIED_OFFSET);
+			file.writeLong(lastModified);
+		} catch (IOException e) {
+			logger.warn("Unable to update the test data cache " + cacheFile.getPath(), e);
+		}
+	}
+
+	private File getCacheFile(File workbook) {
+		return new File(workbook.getPath() + EXTENSION);
+	}
+
+	private long getHash(File workbook) throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] bytes = new byte[64 * 1024];
+		try (InputStream in = new FileInputStream(workbook)) {
+			int length;
+			while ((length = in.read(bytes)) != -1)
+				crc.update(bytes, 0, length);
+		}
+		return crc.getValue();
+	}
+
+	private void writeSheet(DataOutputStream out, TestDataSheet sheet, Map<String, Integer> stringIds)
+			throws IOException {
+		writeString(out, sheet.getName());
+		out.writeInt(sheet.getNumOfRows());
+		out.writeInt(sheet.getNumOfColumns());
+		BitSet missingRows = new BitSet();
+		for (int row = 0; row < sheet.getNumOfRows(); row++) {
+			if (sheet.isMissingRow(row))
+				missingRows.set(row);
+		}
+		long[] words = missingRows.toLongArray();
+		out.writeInt(words.length);
+		for (long word : words)
+			out.writeLong(word);
+		for (int col = 0; col < sheet.getNumOfColumns(); col++) {
+			for (int row = 0; row < sheet.getNumOfRows(); row++) {
+				byte type = sheet.getType(row, col);
+				out.writeByte(type);
+				if (type == TestDataSheet.STRING)
+					out.writeInt(stringIds.get(sheet.getString(row, col)));
+				else if (type == TestDataSheet.NUMBER || type == TestDataSheet.DATE)
+					out.writeDouble(sheet.getNumber(row, col));
+				else if (type == TestDataSheet.BOOLEAN)
+					out.writeBoolean(sheet.getBoolean(row, col));
+			}
+		}
+	}
+
+	private TestDataSheet readSheet(ByteBuffer buffer, String[] strings) {
+		TestDataSheet.Builder builder = new TestDataSheet.Builder(readString(buffer));
+		int numOfRows = buffer.getInt(), numOfColumns = buffer.getInt();
+		long[] words = new long[buffer.getInt()];
+		for (int i = 0; i < words.length; i++)
+			words[i] = buffer.getLong();
+		BitSet missingRows = BitSet.valueOf(words);
+		for (int row = 0; row < numOfRows; row++) {
+			if (!missingRows.get(row))
+				builder.addRow(row);
+		}
+		for (int col = 0; col < numOfColumns; col++) {
+			for (int row = 0; row < numOfRows; row++) {
+				byte type = buffer.get();
+				if (type == TestDataSheet.STRING)
+					builder.setString(row, col, strings[buffer.getInt()]);
+				else if (type == TestDataSheet.NUMBER)
+					builder.setNumber(row, col, buffer.getDouble());
+				else if (type == TestDataSheet.DATE)
+					builder.setDate(row, col, buffer.getDouble());
+				else if (type == TestDataSheet.BOOLEAN)
+					builder.setBoolean(row, col, buffer.get() != 0);
+			}
+		}
+		return builder.build();
+	}
+
+	private void writeString(DataOutputStream out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private String readString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,101 @@
+/* TestDataDefaults replaces the default value placeholders of the test data with the configured values
+ * Guideline: This is used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import framework.constants.ITestdataEnums;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class substitutes the placeholders (TestDataDefaultValues) in the cell
+ * values e.g. LoginUsernameConfig with the values from the config.properties.
+ * All the placeholders are matched by a single precompiled pattern and the
+ * config values are read once, so a cell is substituted in a single pass even
+ * if it contains more than one placeholder
+ *
+ * @note The sheets are substituted when they are loaded, the scripts read the
+ *       substituted values
+ */
+public class TestDataDefaults implements ITestdataEnums {
+
+	private static final Pattern PLACEHOLDER = compile();
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Map<String, String> values = new HashMap<String, String>();
+
+	public TestDataDefaults(ConfigurationLib configLib) {
+		put(TestDataDefaultValues.LOGIN_USERNAME, configLib.getLoginUsername());
+		put(TestDataDefaultValues.LOGIN_PASSWORD, configLib.getLoginPassword());
+		put(TestDataDefaultValues.BROWSER, configLib.getBrowser());
+	}
+
+	/**
+	 * To substitute the placeholders of a cell value
+	 *
+	 * @param value Cell value
+	 * @return Returns the substituted value. A placeholder which is not supported
+	 *         is left as it is
+	 */
+	public String resolve(String value) {
+		if (value == null)
+			return null;
+		Matcher matcher = PLACEHOLDER.matcher(value);
+		if (!matcher.find())
+			return value;
+		StringBuffer resolved = new StringBuffer();
+		do {
+			String replacement = values.get(matcher.group().toLowerCase());
+			if (replacement == null) {
+				logger.error("Incorrect Value " + matcher.group() + " .We do not Support provided Test Data Value");
+				replacement = matcher.group();
+			}
+			matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement));
+		} while (matcher.find());
+		matcher.appendTail(resolved);
+		logger.debug("Old Value : " + value + " - New Value is : " + resolved);
+		return resolved.toString();
+	}
+
+	/**
+	 * To substitute the placeholders of all the cells of a sheet
+	 *
+	 * @param sheet Sheet as read from the workbook
+	 * @return Returns the substituted copy of the sheet or the same sheet if it
+	 *         doesn't contain any placeholder
+	 */
+	public TestDataSheet resolve(TestDataSheet sheet) {
+		return sheet.map(this::resolve);
+	}
+
+	private void put(TestDataDefaultValues defaultValue, String value) {
+		if (value != null)
+			values.put(defaultValue.toString().toLowerCase(), value);
+	}
+
+	/**
+	 * To compile one pattern for all the placeholders. Longer placeholders are
+	 * matched first in case one placeholder is a part of another
+	 */
+	private static Pattern compile() {
+		TestDataDefaultValues[] defaultValues = TestDataDefaultValues.values();
+		Arrays.sort(defaultValues, Comparator.comparingInt(
+				(TestDataDefaultValues defaultValue) -> defaultValue.toString().length()).reversed());
+		StringBuilder regex = new StringBuilder();
+		for (TestDataDefaultValues defaultValue : defaultValues) {
+			if (regex.length() > 0)
+				regex.append('|');
+			regex.append(Pattern.quote(defaultValue.toString()));
+		}
+		return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+	}
+}
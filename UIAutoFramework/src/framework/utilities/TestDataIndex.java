@@ -0,0 +1,161 @@
+/* TestDataIndex holds the pre-computed layout of a test data sheet
+ * Guideline: This is built and used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class holds an immutable index of a test data sheet i.e. the column
+ * header to column number map and the (script, iteration) to row range map. It
+ * is built in a single pass over the sheet so that the lookups done by ExcelLib
+ * do not have to scan the sheet again
+ */
+public final class TestDataIndex {
+
+	public static final int SCRIPT_COL = 1, ITERATION_COL = 2;
+
+	private final Map<String, Integer> columns;
+	private final Map<String, RowRange> records;
+	private final Map<String, Integer> occurrences;
+	private final int numOfRows;
+
+	private TestDataIndex(Map<String, Integer> columns, Map<String, RowRange> records,
+			Map<String, Integer> occurrences, int numOfRows) {
+		this.columns = Collections.unmodifiableMap(columns);
+		this.records = Collections.unmodifiableMap(records);
+		this.occurrences = Collections.unmodifiableMap(occurrences);
+		this.numOfRows = numOfRows;
+	}
+
+	/**
+	 * To build the index of a sheet in one pass. A record starts at the row where
+	 * the script name is specified and spans all the following rows where the
+	 * script name cell is blank i.e. merged
+	 *
+	 * @param sheet Cell values of the sheet
+	 * @return index Returns the index of the sheet
+	 */
+	public static TestDataIndex build(TestDataSheet sheet) {
+		Map<String, Integer> columns = new HashMap<String, Integer>();
+		Map<String, RowRange> records = new HashMap<String, RowRange>();
+		Map<String, Integer> occurrences = new HashMap<String, Integer>();
+		int numOfRows = sheet.getNumOfRows();
+		String openKey = null, script, header;
+		int openStart = -1;
+
+		for (int i = 0; i < sheet.getNumOfColumns(); i++) {
+			header = sheet.getValue(0, i);
+			if (header != null && !columns.containsKey(header.trim()))
+				columns.put(header.trim(), i);
+		}
+
+		for (int i = 0; i < numOfRows; i++) {
+			boolean missingRow = sheet.isMissingRow(i);
+			script = sheet.getValue(i, SCRIPT_COL);
+			if (!missingRow && script == null)
+				continue;
+
+			if (openKey != null && !records.containsKey(openKey))
+				records.put(openKey, new RowRange(openStart, i));
+			openKey = null;
+			if (missingRow)
+				continue;
+
+			script = script.trim();
+			Integer count = occurrences.get(script);
+			occurrences.put(script, count == null ? 1 : count + 1);
+			Integer itr = parseIteration(sheet.getValue(i, ITERATION_COL));
+			if (itr != null) {
+				openKey = key(script, itr);
+				openStart = i;
+			}
+		}
+		if (openKey != null && !records.containsKey(openKey))
+			records.put(openKey, new RowRange(openStart, numOfRows));
+
+		return new TestDataIndex(columns, records, occurrences, numOfRows);
+	}
+
+	/**
+	 * To get the column number of a column header
+	 *
+	 * @param colName Name of the column
+	 * @return Returns the column number or -1 if the column doesn't exist
+	 */
+	public int getColumn(String colName) {
+		Integer col = columns.get(colName.trim());
+		return col == null ? -1 : col;
+	}
+
+	/**
+	 * To get the rows of a script's iteration
+	 *
+	 * @param script Name of the script
+	 * @param itr    Iteration of the script
+	 * @return Returns the row range or null if the record doesn't exist
+	 */
+	public RowRange getRecord(String script, int itr) {
+		return records.get(key(script.trim(), itr));
+	}
+
+	/**
+	 * To get the number of rows in which the script name is specified
+	 *
+	 * @param script Name of the script
+	 * @return Returns the number of occurrences
+	 */
+	public int getNumberOfOccurences(String script) {
+		Integer count = occurrences.get(script);
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * @return Returns the number of rows in the sheet including the header
+	 */
+	public int getNumOfRows() {
+		return numOfRows;
+	}
+
+	private static String key(String script, int itr) {
+		return script + "|" + itr;
+	}
+
+	private static Integer parseIteration(String iteration) {
+		if (iteration == null)
+			return null;
+		try {
+			return Integer.parseInt(iteration.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Rows of a record. Start row is inclusive and end row is exclusive
+	 */
+	public static final class RowRange {
+
+		private final int start, end;
+
+		RowRange(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public int getStart() {
+			return start;
+		}
+
+		public int getEnd() {
+			return end;
+		}
+
+		public int size() {
+			return end - start;
+		}
+	}
+}
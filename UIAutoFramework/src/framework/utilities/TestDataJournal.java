@@ -0,0 +1,157 @@
+/* TestDataJournal buffers the cells written to the test data until they are saved to the workbook
+ * Guideline: This is used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class records the cells written by the scripts in a buffer per thread.
+ * The buffers are drained and merged when the workbook is saved, so any number
+ * of writes result in a single save. When more than one thread writes a
+ * different value to the same cell before the next save, the conflict is
+ * logged and the latest write wins
+ */
+public class TestDataJournal {
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final AtomicLong sequence = new AtomicLong();
+	private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<Buffer>();
+	private final ThreadLocal<Buffer> threadBuffer = new ThreadLocal<Buffer>() {
+		@Override
+		protected Buffer initialValue() {
+			Buffer buffer = new Buffer(Thread.currentThread());
+			buffers.add(buffer);
+			return buffer;
+		}
+	};
+
+	/**
+	 * To record a cell written by the current thread. A later write to the same
+	 * cell by the same thread replaces the earlier one
+	 *
+	 * @param sheetName Name of the sheet
+	 * @param row       Row of the cell
+	 * @param col       Column of the cell
+	 * @param value     Value written to the cell
+	 */
+	public void record(String sheetName, int row, int col, String value) {
+		Write write = new Write(sequence.incrementAndGet(), Thread.currentThread().getName(), sheetName, row, col,
+				value);
+		Buffer buffer = threadBuffer.get();
+		synchronized (buffer) {
+			buffer.writes.put(write.getKey(), write);
+		}
+	}
+
+	/**
+	 * @return Returns true if there are writes which are not yet saved
+	 */
+	public boolean hasPendingWrites() {
+		for (Buffer buffer : buffers) {
+			synchronized (buffer) {
+				if (!buffer.writes.isEmpty())
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * To take all the writes recorded so far out of the buffers of all the threads
+	 *
+	 * @return writes Returns the merged writes in the order they are made
+	 */
+	public List<Write> drain() {
+		Map<String, Write> merged = new LinkedHashMap<String, Write>();
+		for (Buffer buffer : buffers) {
+			Map<String, Write> writes;
+			synchronized (buffer) {
+				writes = buffer.writes;
+				buffer.writes = new LinkedHashMap<String, Write>();
+			}
+			if (!buffer.owner.isAlive())
+				buffers.remove(buffer);
+			for (Write write : writes.values()) {
+				Write existing = merged.get(write.getKey());
+				if (existing == null) {
+					merged.put(write.getKey(), write);
+					continue;
+				}
+				Write earlier = existing.sequence < write.sequence ? existing : write;
+				Write later = earlier == existing ? write : existing;
+				if (!String.valueOf(earlier.value).equals(String.valueOf(later.value)))
+					logger.warn("Conflicting writes to sheet: " + write.sheetName + ", row: " + write.row
+							+ ", column: " + write.col + ". " + earlier.threadName + " wrote " + earlier.value
+							+ " and " + later.threadName + " wrote " + later.value + ". Keeping " + later.value);
+				merged.put(write.getKey(), later);
+			}
+		}
+		List<Write> writes = new ArrayList<Write>(merged.values());
+		writes.sort((first, second) -> Long.compare(first.sequence, second.sequence));
+		return writes;
+	}
+
+	/**
+	 * Writes recorded by a thread which are not yet saved
+	 */
+	private static final class Buffer {
+
+		private final Thread owner;
+		private Map<String, Write> writes = new LinkedHashMap<String, Write>();
+
+		Buffer(Thread owner) {
+			this.owner = owner;
+		}
+	}
+
+	/**
+	 * A cell written to the test data
+	 */
+	public static final class Write {
+
+		private final long sequence;
+		private final String threadName, sheetName, value;
+		private final int row, col;
+
+		Write(long sequence, String threadName, String sheetName, int row, int col, String value) {
+			this.sequence = sequence;
+			this.threadName = threadName;
+			this.sheetName = sheetName;
+			this.row = row;
+			this.col = col;
+			this.value = value;
+		}
+
+		public String getSheetName() {
+			return sheetName;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public int getCol() {
+			return col;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		private String getKey() {
+			return sheetName + "|" + row + "|" + col;
+		}
+	}
+}
@@ -0,0 +1,170 @@
+/* TestDataReader reads the test data workbook sheet by sheet without loading the complete workbook
+ * Guideline: This is used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class reads the sheets of an xlsx workbook using the event (SAX) API of
+ * POI. Only the requested sheets are parsed and the cells are streamed straight
+ * in to a TestDataSheet with their type, so the XSSF object model of the
+ * workbook is never created
+ */
+public class TestDataReader {
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	/**
+	 * To read the sheets of an xlsx workbook
+	 *
+	 * @param file       Workbook to be read
+	 * @param sheetNames Names of the sheets to be read. Pass an empty collection
+	 *                   to read all the sheets
+	 * @return sheets Returns the sheets which are found in the workbook
+	 */
+	public Map<String, TestDataSheet> readSheets(File file, Collection<String> sheetNames) throws Exception {
+		Map<String, TestDataSheet> sheets = new LinkedHashMap<String, TestDataSheet>();
+		long startTime = System.currentTimeMillis();
+		OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+		try {
+			XSSFReader reader = new XSSFReader(pkg);
+			ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+			StylesTable styles = reader.getStylesTable();
+			XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+			while (iterator.hasNext()) {
+				InputStream stream = iterator.next();
+				try {
+					String sheetName = iterator.getSheetName();
+					if (sheetNames.isEmpty() || sheetNames.contains(sheetName)) {
+						SheetHandler handler = new SheetHandler(sheetName, strings, styles);
+						XMLReader parser = SAXHelper.newXMLReader();
+						parser.setContentHandler(handler);
+						parser.parse(new InputSource(stream));
+						sheets.put(sheetName, handler.builder.build());
+					}
+				} finally {
+					stream.close();
+				}
+			}
+		} finally {
+			pkg.revert();
+		}
+		logger.info("Read " + sheets.size() + " sheet(s) from " + file.getName() + " in "
+				+ (System.currentTimeMillis() - startTime) + " ms");
+		return sheets;
+	}
+
+	/**
+	 * SAX handler for a worksheet. Types the cells the same way as
+	 * TestDataSheet.of() does for a cell of the XSSF object model
+	 */
+	private static class SheetHandler extends DefaultHandler {
+
+		private final TestDataSheet.Builder builder;
+		private final ReadOnlySharedStringsTable strings;
+		private final StylesTable styles;
+		private final Map<Integer, Boolean> dateStyles = new HashMap<Integer, Boolean>();
+		private final StringBuilder text = new StringBuilder();
+		private String cellType;
+		private boolean isText, hasFormula;
+		private int row = -1, col = -1, nextCol = 0, style = -1;
+
+		SheetHandler(String sheetName, ReadOnlySharedStringsTable strings, StylesTable styles) {
+			this.builder = new TestDataSheet.Builder(sheetName);
+			this.strings = strings;
+			this.styles = styles;
+		}
+
+		@Override
+		public void startElement(String uri, String localName, String qName, Attributes attributes) {
+			if ("row".equals(localName)) {
+				String ref = attributes.getValue("r");
+				row = ref == null ? row + 1 : Integer.parseInt(ref) - 1;
+				nextCol = 0;
+				builder.addRow(row);
+			} else if ("c".equals(localName)) {
+				String ref = attributes.getValue("r");
+				col = ref == null ? nextCol : new CellReference(ref).getCol();
+				nextCol = col + 1;
+				cellType = attributes.getValue("t");
+				String styleRef = attributes.getValue("s");
+				style = styleRef == null ? -1 : Integer.parseInt(styleRef);
+				hasFormula = false;
+				text.setLength(0);
+			} else if ("v".equals(localName) || "t".equals(localName)) {
+				isText = true;
+			} else if ("f".equals(localName)) {
+				hasFormula = true;
+			}
+		}
+
+		@Override
+		public void characters(char[] ch, int start, int length) {
+			if (isText)
+				text.append(ch, start, length);
+		}
+
+		@Override
+		public void endElement(String uri, String localName, String qName) {
+			if ("v".equals(localName) || "t".equals(localName))
+				isText = false;
+			else if ("c".equals(localName))
+				setCellValue(text.toString());
+		}
+
+		private void setCellValue(String raw) {
+			if (hasFormula && !"str".equals(cellType))
+				return;
+			if ("s".equals(cellType)) {
+				if (!raw.trim().isEmpty())
+					builder.setString(row, col, strings.getEntryAt(Integer.parseInt(raw.trim())).trim());
+			} else if ("inlineStr".equals(cellType) || "str".equals(cellType))
+				builder.setString(row, col, raw.trim());
+			else if ("b".equals(cellType))
+				builder.setBoolean(row, col, "1".equals(raw.trim()));
+			else if (!"e".equals(cellType) && !raw.trim().isEmpty()) {
+				double value = Double.parseDouble(raw);
+				if (isDateStyle(style) && DateUtil.isValidExcelDate(value))
+					builder.setDate(row, col, value);
+				else
+					builder.setNumber(row, col, value);
+			}
+		}
+
+		private boolean isDateStyle(int styleIndex) {
+			if (styleIndex < 0 || styles == null)
+				return false;
+			Boolean isDate = dateStyles.get(styleIndex);
+			if (isDate == null) {
+				XSSFCellStyle cellStyle = styles.getStyleAt(styleIndex);
+				isDate = cellStyle != null
+						&& DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+				dateStyles.put(styleIndex, isDate);
+			}
+			return isDate;
+		}
+	}
+}
@@ -0,0 +1,558 @@
+/* TestDataSheet holds the read only cell values of a test data sheet
+ * Guideline: This is built and used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * This class holds an immutable copy of the cell values of a sheet along with
+ * its index. It can be read by any number of threads without synchronization.
+ * A write creates a new copy of the sheet instead of modifying this one
+ *
+ * @note The values are stored column by column with their type. Numbers, dates
+ *       and booleans are kept as primitives and converted to the string
+ *       returned to the scripts only when they are read for the first time.
+ *       Repeated strings share the same string, which keeps large sheets with
+ *       many repeated values (flags, browser, script names) compact. The rows of
+ *       a column which have a value are resolved once per column, so the merged
+ *       rows i.e. a value followed by blank rows are looked up without scanning
+ *       the column again
+ */
+public final class TestDataSheet {
+
+	static final byte BLANK = 0, STRING = 1, NUMBER = 2, DATE = 3, BOOLEAN = 4;
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+	private final String name;
+	private final Column[] columns;
+	private final int numOfRows;
+	private final BitSet missingRows;
+	private final long estimatedSize;
+	private final TestDataIndex index;
+	private final Map<Integer, Map<String, Integer>> valueCounts = new ConcurrentHashMap<Integer, Map<String, Integer>>();
+	private final Map<Integer, int[]> nonBlankRows = new ConcurrentHashMap<Integer, int[]>();
+
+	private TestDataSheet(String name, Column[] columns, int numOfRows, BitSet missingRows, long estimatedSize,
+			TestDataIndex index) {
+		this.name = name;
+		this.columns = columns;
+		this.numOfRows = numOfRows;
+		this.missingRows = missingRows;
+		this.estimatedSize = estimatedSize;
+		this.index = index == null ? TestDataIndex.build(this) : index;
+	}
+
+	/**
+	 * To copy all the cell values of a sheet which is already loaded in memory
+	 *
+	 * @param sheet Sheet to be copied
+	 * @return Returns the read only copy of the sheet
+	 */
+	public static TestDataSheet of(Sheet sheet) {
+		Builder builder = new Builder(sheet.getSheetName());
+		for (int i = 0; i <= sheet.getLastRowNum(); i++) {
+			Row row = sheet.getRow(i);
+			if (row == null)
+				continue;
+			builder.addRow(i);
+			for (int j = 0; j < row.getLastCellNum(); j++)
+				setCellValue(builder, i, j, row.getCell(j));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * To copy a cell with its type. Dates are the numeric cells with a date format
+	 * and a formula is copied only if its result is a string
+	 */
+	private static void setCellValue(Builder builder, int row, int col, Cell cell) {
+		if (cell == null)
+			return;
+		try {
+			switch (cell.getCellTypeEnum()) {
+			case STRING:
+				builder.setString(row, col, cell.getStringCellValue().trim());
+				break;
+			case FORMULA:
+				builder.setString(row, col, cell.getRichStringCellValue().toString().trim());
+				break;
+			case NUMERIC:
+				if (DateUtil.isCellDateFormatted(cell))
+					builder.setDate(row, col, cell.getNumericCellValue());
+				else
+					builder.setNumber(row, col, cell.getNumericCellValue());
+				break;
+			case BLANK:
+				break;
+			default:
+				builder.setBoolean(row, col, cell.getBooleanCellValue());
+			}
+		} catch (IllegalStateException e) {
+			return;
+		}
+	}
+
+	/**
+	 * @return Returns the name of the sheet
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return Returns the index of the sheet
+	 */
+	public TestDataIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return Returns the number of rows in the sheet including the header
+	 */
+	public int getNumOfRows() {
+		return numOfRows;
+	}
+
+	/**
+	 * @return Returns the number of columns in the sheet
+	 */
+	public int getNumOfColumns() {
+		return columns.length;
+	}
+
+	/**
+	 * To check whether a row is missing in the sheet i.e. it was never created,
+	 * as opposed to a row with blank cells
+	 */
+	public boolean isMissingRow(int row) {
+		return row < 0 || row >= numOfRows || missingRows.get(row);
+	}
+
+	/**
+	 * To get the value of a cell. Dates are formatted as dd/MM/yyyy and the
+	 * trailing zero of whole numbers is removed
+	 *
+	 * @param row Row number starting from 0
+	 * @param col Column number starting from 0
+	 * @return Returns the cell value or null if the cell is blank
+	 */
+	public String getValue(int row, int col) {
+		byte type = getType(row, col);
+		if (type == BLANK)
+			return null;
+		Column column = columns[col];
+		if (type == STRING)
+			return column.strings[row];
+
+		String[] converted = column.converted;
+		if (converted == null) {
+			converted = new String[column.types.length];
+			column.converted = converted;
+		}
+		String value = converted[row];
+		if (value == null) {
+			if (type == NUMBER)
+				value = toString(column.numbers[row]);
+			else if (type == DATE)
+				value = DATE_FORMAT
+						.format(DateUtil.getJavaDate(column.numbers[row]).toInstant().atZone(ZoneId.systemDefault()));
+			else
+				value = String.valueOf(column.booleans.get(row));
+			converted[row] = value;
+		}
+		return value;
+	}
+
+	/**
+	 * To check whether a cell is blank i.e. part of merged rows
+	 */
+	public boolean isBlank(int row, int col) {
+		return getType(row, col) == BLANK;
+	}
+
+	/**
+	 * @return Returns the type of a cell i.e. BLANK, STRING, NUMBER, DATE or
+	 *         BOOLEAN
+	 */
+	byte getType(int row, int col) {
+		if (col < 0 || col >= columns.length || columns[col] == null || row < 0 || row >= columns[col].types.length)
+			return BLANK;
+		return columns[col].types[row];
+	}
+
+	/**
+	 * @return Returns the string of a STRING cell
+	 */
+	String getString(int row, int col) {
+		return columns[col].strings[row];
+	}
+
+	/**
+	 * @return Returns the number of a NUMBER cell or the excel date of a DATE cell
+	 */
+	double getNumber(int row, int col) {
+		return columns[col].numbers[row];
+	}
+
+	/**
+	 * @return Returns the value of a BOOLEAN cell
+	 */
+	boolean getBoolean(int row, int col) {
+		return columns[col].booleans.get(row);
+	}
+
+	/**
+	 * To get the rows of a column which have a value
+	 *
+	 * @param col     Column number
+	 * @param fromRow First row to look in (inclusive)
+	 * @param toRow   Last row to look in (exclusive)
+	 * @return Returns the row numbers in ascending order
+	 */
+	public int[] getNonBlankRows(int col, int fromRow, int toRow) {
+		int[] rows = getNonBlankRows(col);
+		int from = indexOf(rows, fromRow), to = indexOf(rows, toRow);
+		return Arrays.copyOfRange(rows, from, Math.max(from, to));
+	}
+
+	/**
+	 * To get the end of the merged rows starting at a row i.e. the next row of the
+	 * column which has a value
+	 *
+	 * @param col    Column number
+	 * @param row    Row where the merged rows start
+	 * @param endRow Row at which the merged rows end at the latest e.g. end of the
+	 *               record
+	 * @return Returns the end row (exclusive)
+	 */
+	public int getMergedRowsEnd(int col, int row, int endRow) {
+		int[] rows = getNonBlankRows(col);
+		int next = indexOf(rows, row + 1);
+		return next < rows.length ? Math.min(rows[next], endRow) : endRow;
+	}
+
+	private int[] getNonBlankRows(int col) {
+		int[] rows = nonBlankRows.get(col);
+		if (rows == null) {
+			int count = 0;
+			rows = new int[numOfRows];
+			for (int i = 0; i < numOfRows; i++) {
+				if (!isBlank(i, col))
+					rows[count++] = i;
+			}
+			rows = Arrays.copyOf(rows, count);
+			nonBlankRows.put(col, rows);
+		}
+		return rows;
+	}
+
+	/**
+	 * To get the position of the first row which is greater than or equal to row
+	 */
+	private static int indexOf(int[] rows, int row) {
+		int pos = Arrays.binarySearch(rows, row);
+		return pos < 0 ? -pos - 1 : pos;
+	}
+
+	/**
+	 * @return Returns the approximate heap used by the cell values in bytes
+	 */
+	public long getEstimatedSize() {
+		return estimatedSize;
+	}
+
+	/**
+	 * To get the value counts of a column computed by a previous search
+	 *
+	 * @return Returns the counts or null if the column is not yet counted
+	 */
+	Map<String, Integer> getValueCounts(int col) {
+		return valueCounts.get(col);
+	}
+
+	/**
+	 * To cache the value counts of a column. The cache lives as long as this copy
+	 * of the sheet i.e. until the next write
+	 */
+	void setValueCounts(int col, Map<String, Integer> counts) {
+		valueCounts.put(col, counts);
+	}
+
+	/**
+	 * To create a copy of the sheet with a cell updated. Only the updated column
+	 * is copied and the index is rebuilt only if the layout of the sheet changes
+	 *
+	 * @param row   Row number of the cell
+	 * @param col   Column number of the cell
+	 * @param value New value of the cell
+	 * @return Returns the updated copy of the sheet
+	 */
+	TestDataSheet withValue(int row, int col, String value) {
+		boolean layoutChanged = isMissingRow(row) || row == 0 || col == TestDataIndex.SCRIPT_COL
+				|| col == TestDataIndex.ITERATION_COL;
+		int newNumOfRows = Math.max(numOfRows, row + 1);
+		Column[] newColumns = columns.length > col ? columns.clone() : Arrays.copyOf(columns, col + 1);
+		newColumns[col] = (newColumns[col] == null ? new Column(new byte[0], null, null, null)
+				: newColumns[col]).withString(row, value);
+		BitSet newMissingRows = missingRows;
+		if (isMissingRow(row)) {
+			newMissingRows = (BitSet) missingRows.clone();
+			newMissingRows.set(numOfRows, newNumOfRows);
+			newMissingRows.clear(row);
+		}
+		long newSize = estimatedSize + (value == null ? 0 : Builder.sizeOf(value));
+		return new TestDataSheet(name, newColumns, newNumOfRows, newMissingRows, newSize,
+				layoutChanged ? null : index);
+	}
+
+	/**
+	 * To create a copy of the sheet with every string passed through a function
+	 * e.g. to substitute the default values. Repeated strings are converted once
+	 * and the numbers, dates and booleans are left as they are
+	 *
+	 * @param function Function to convert a string
+	 * @return Returns the converted copy of the sheet or this sheet if no string is
+	 *         changed by the function
+	 */
+	TestDataSheet map(UnaryOperator<String> function) {
+		Map<String, String> converted = new HashMap<String, String>();
+		Column[] newColumns = null;
+		for (int col = 0; col < columns.length; col++) {
+			if (columns[col] == null || columns[col].strings == null)
+				continue;
+			String[] strings = columns[col].strings;
+			String[] newStrings = strings;
+			for (int row = 0; row < strings.length; row++) {
+				String value = strings[row];
+				if (value == null)
+					continue;
+				String newValue = converted.get(value);
+				if (newValue == null) {
+					newValue = function.apply(value);
+					converted.put(value, newValue);
+				}
+				if (newValue.equals(value))
+					continue;
+				if (newStrings == strings)
+					newStrings = strings.clone();
+				newStrings[row] = newValue;
+			}
+			if (newStrings != strings) {
+				if (newColumns == null)
+					newColumns = columns.clone();
+				Column column = columns[col];
+				newColumns[col] = new Column(column.types, newStrings, column.numbers, column.booleans);
+			}
+		}
+		if (newColumns == null)
+			return this;
+		return new TestDataSheet(name, newColumns, numOfRows, missingRows, estimatedSize, null);
+	}
+
+	/**
+	 * To convert a number to a string the same way as excel shows a whole number
+	 * i.e. without the trailing .0
+	 */
+	private static String toString(double number) {
+		String value = String.valueOf(number);
+		return value.endsWith(".0") ? value.substring(0, value.length() - 2) : value;
+	}
+
+	/**
+	 * Cells of a column. The type of each cell decides which array holds its
+	 * value, the arrays which are not needed by any cell are not created
+	 */
+	private static final class Column {
+
+		private final byte[] types;
+		private final String[] strings;
+		private final double[] numbers;
+		private final BitSet booleans;
+		private volatile String[] converted;
+
+		Column(byte[] types, String[] strings, double[] numbers, BitSet booleans) {
+			this.types = types;
+			this.strings = strings;
+			this.numbers = numbers;
+			this.booleans = booleans;
+		}
+
+		/**
+		 * To copy the column with a string written to a row. The numbers, booleans and
+		 * the converted strings are shared with this column since they do not change
+		 */
+		Column withString(int row, String value) {
+			int length = Math.max(types.length, row + 1);
+			byte[] newTypes = Arrays.copyOf(types, length);
+			String[] newStrings = strings == null ? new String[length] : Arrays.copyOf(strings, length);
+			newTypes[row] = value == null ? BLANK : STRING;
+			newStrings[row] = value;
+			Column column = new Column(newTypes, newStrings, numbers, booleans);
+			String[] oldConverted = converted;
+			if (oldConverted != null && oldConverted.length == length)
+				column.converted = oldConverted;
+			return column;
+		}
+	}
+
+	/**
+	 * To build a sheet cell by cell while the workbook is being read. Repeated
+	 * strings are stored once
+	 */
+	static final class Builder {
+
+		private static final int REFERENCE_SIZE = 8, NUMBER_SIZE = 8, STRING_SIZE = 40;
+
+		private final String name;
+		private final Map<String, String> dictionary = new HashMap<String, String>();
+		private final List<ColumnBuilder> columns = new ArrayList<ColumnBuilder>();
+		private final BitSet presentRows = new BitSet();
+		private int numOfRows = 0;
+		private long stringsSize = 0;
+
+		Builder(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * To mark a row as present in the sheet
+		 */
+		void addRow(int row) {
+			presentRows.set(row);
+			numOfRows = Math.max(numOfRows, row + 1);
+		}
+
+		/**
+		 * To set the value of a string cell. Blank cells i.e. null values are skipped
+		 */
+		void setString(int row, int col, String value) {
+			if (value == null)
+				return;
+			String shared = dictionary.get(value);
+			if (shared == null) {
+				shared = value;
+				dictionary.put(value, value);
+				stringsSize += sizeOf(value);
+			}
+			ColumnBuilder column = getColumn(row, col);
+			if (column.strings == null)
+				column.strings = new String[column.types.length];
+			column.strings[row] = shared;
+			column.types[row] = STRING;
+		}
+
+		/**
+		 * To set the value of a numeric cell
+		 */
+		void setNumber(int row, int col, double value) {
+			setNumber(row, col, value, NUMBER);
+		}
+
+		/**
+		 * To set the value of a date cell i.e. the excel date of a numeric cell with a
+		 * date format
+		 */
+		void setDate(int row, int col, double value) {
+			setNumber(row, col, value, DATE);
+		}
+
+		/**
+		 * To set the value of a boolean cell
+		 */
+		void setBoolean(int row, int col, boolean value) {
+			ColumnBuilder column = getColumn(row, col);
+			if (column.booleans == null)
+				column.booleans = new BitSet();
+			column.booleans.set(row, value);
+			column.types[row] = BOOLEAN;
+		}
+
+		private void setNumber(int row, int col, double value, byte type) {
+			ColumnBuilder column = getColumn(row, col);
+			if (column.numbers == null)
+				column.numbers = new double[column.types.length];
+			column.numbers[row] = value;
+			column.types[row] = type;
+		}
+
+		private ColumnBuilder getColumn(int row, int col) {
+			addRow(row);
+			while (columns.size() <= col)
+				columns.add(null);
+			ColumnBuilder column = columns.get(col);
+			if (column == null) {
+				column = new ColumnBuilder(Math.max(16, row + 1));
+				columns.set(col, column);
+			}
+			column.ensureCapacity(row + 1);
+			return column;
+		}
+
+		TestDataSheet build() {
+			Column[] cols = new Column[columns.size()];
+			long size = stringsSize;
+			for (int i = 0; i < cols.length; i++) {
+				ColumnBuilder column = columns.get(i);
+				if (column == null)
+					continue;
+				int length = Math.min(column.types.length, numOfRows);
+				cols[i] = new Column(Arrays.copyOf(column.types, length),
+						column.strings == null ? null : Arrays.copyOf(column.strings, length),
+						column.numbers == null ? null : Arrays.copyOf(column.numbers, length), column.booleans);
+				size += length + (column.strings == null ? 0 : (long) length * REFERENCE_SIZE)
+						+ (column.numbers == null ? 0 : (long) length * NUMBER_SIZE);
+			}
+			BitSet missingRows = new BitSet();
+			missingRows.set(0, numOfRows);
+			missingRows.andNot(presentRows);
+			return new TestDataSheet(name, cols, numOfRows, missingRows, size, null);
+		}
+
+		static long sizeOf(String value) {
+			return STRING_SIZE + 2L * value.length();
+		}
+
+		/**
+		 * Cells of a column while the sheet is being built
+		 */
+		private static final class ColumnBuilder {
+
+			private byte[] types;
+			private String[] strings;
+			private double[] numbers;
+			private BitSet booleans;
+
+			ColumnBuilder(int capacity) {
+				types = new byte[capacity];
+			}
+
+			void ensureCapacity(int capacity) {
+				if (types.length >= capacity)
+					return;
+				int length = Math.max(types.length * 2, capacity);
+				types = Arrays.copyOf(types, length);
+				if (strings != null)
+					strings = Arrays.copyOf(strings, length);
+				if (numbers != null)
+					numbers = Arrays.copyOf(numbers, length);
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/* TestDataSnapshot holds the read only test data of a workbook
+ * Guideline: This is built and used by ExcelLib. Do not use it directly in the scripts.
+ */
+
+package framework.utilities;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class holds an immutable snapshot of all the sheets of a workbook. The
+ * snapshot is shared by all the TestNG threads and is replaced as a whole when
+ * test data is written, so a reader always sees a consistent copy without any
+ * locking
+ */
+public final class TestDataSnapshot {
+
+	public static final TestDataSnapshot EMPTY = new TestDataSnapshot(new LinkedHashMap<String, TestDataSheet>());
+
+	private final Map<String, TestDataSheet> sheets;
+
+	TestDataSnapshot(Map<String, TestDataSheet> sheets) {
+		this.sheets = Collections.unmodifiableMap(sheets);
+	}
+
+	/**
+	 * To get a sheet from the snapshot
+	 *
+	 * @param sheetName Name of the sheet
+	 * @return Returns the sheet or null if it doesn't exist
+	 */
+	public TestDataSheet getSheet(String sheetName) {
+		return sheets.get(sheetName);
+	}
+
+	/**
+	 * @return Returns the names of all the sheets in the snapshot
+	 */
+	public Set<String> getSheetNames() {
+		return sheets.keySet();
+	}
+
+	/**
+	 * @return Returns the approximate heap used by all the sheets in bytes
+	 */
+	public long getEstimatedSize() {
+		long size = 0;
+		for (TestDataSheet sheet : sheets.values())
+			size += sheet.getEstimatedSize();
+		return size;
+	}
+
+	/**
+	 * To create a new snapshot with a sheet added or replaced
+	 *
+	 * @param sheet Updated sheet
+	 * @return Returns the new snapshot
+	 */
+	TestDataSnapshot withSheet(TestDataSheet sheet) {
+		Map<String, TestDataSheet> newSheets = new LinkedHashMap<String, TestDataSheet>(sheets);
+		newSheets.put(sheet.getName(), sheet);
+		return new TestDataSnapshot(newSheets);
+	}
+}
@@ -1,14 +1,13 @@
 package framework.utilities;
 
 import framework.constants.IFrameworkConstants;
+import framework.core.BrowserPool;
 import framework.core.SetUpTearDownScript;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.logging.LogEntries;
 import org.openqa.selenium.logging.LogEntry;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,27 +18,50 @@ import java.awt.event.KeyEvent;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Actions Library has all the required meth ods to perform actions or
  * operations on the UI. Guideline: Please check this file for any reusable
  * Selenium wrapper methods.
+ *
+ * @note The actions are timed by ActionTimingLib. Wrap the body of a new
+ *       action which uses the browser in timed()
  */
 public class UIActionsLib implements IFrameworkConstants {
 
 	private Logger logger = LoggerFactory.getLogger(this.getClass());
 
-	private PropertiesLib property;
 	private Properties prpOR;
+	private LocatorCache locators;
 	private ConfigurationLib configLib = new ConfigurationLib();
+	private PageReadyLib pageReady = new PageReadyLib();
+	private WaitLib wait = new WaitLib();
+	private ElementCache elements = new ElementCache();
+	private ElementStateLib elementStates = new ElementStateLib();
+	private FormFillLib formFill = new FormFillLib();
 
 	public UIActionsLib(Properties prpOR) {
-		property = new PropertiesLib();
+		this(prpOR, null);
+	}
+
+	/**
+	 * @param prpOR
+	 *            Object repository (OR) of the script
+	 * @param sharedLocators
+	 *            Parsed locators of the shared OR backing prpOR. Only the
+	 *            locators updated by the script are parsed again
+	 */
+	public UIActionsLib(Properties prpOR, LocatorCache sharedLocators) {
 		this.prpOR = prpOR;
+		this.locators = new LocatorCache(prpOR, sharedLocators);
 	}
 
 	/**
@@ -52,9 +74,111 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @return element Returns web element
 	 */
 	public WebElement getElement(WebDriver driver, String ele) throws Exception {
-		WebElement element = null;
-		element = driver.findElement(getLocator(ele));
-		return element;
+		return timed("getElement", ele, () -> {
+			WebElement element = null;
+			element = findElement(driver, getLocator(ele));
+			return element;
+		});
+	}
+
+	/**
+	 * To get a dynamic web element whose locator in the object repository is a
+	 * template e.g. xpath#//tr[TBU1]/td[TBU2]
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param ele
+	 *            Element name in the object repository
+	 * @param values
+	 *            Values of the placeholders TBU1, TBU2 ... in order
+	 * @return element Returns web element
+	 */
+	public WebElement getElement(WebDriver driver, String ele, String... values) throws Exception {
+		return timed("getElement", ele, () -> {
+			return findElement(driver, locators.getLocator(ele, values));
+		});
+	}
+
+	/**
+	 * To find an element. The time taken is recorded as the locate phase of the
+	 * current action
+	 */
+	private WebElement findElement(WebDriver driver, By locator) {
+		ActionPhase previousPhase = ActionTimingLib.enter(ActionPhase.LOCATE);
+		try {
+			return driver.findElement(locator);
+		}
+		finally {
+			ActionTimingLib.exit(previousPhase);
+		}
+	}
+
+	private List<WebElement> findElements(WebDriver driver, By locator) {
+		ActionPhase previousPhase = ActionTimingLib.enter(ActionPhase.LOCATE);
+		try {
+			return driver.findElements(locator);
+		}
+		finally {
+			ActionTimingLib.exit(previousPhase);
+		}
+	}
+
+	/**
+	 * To perform an action on an element - ele. The element found by the previous
+	 * action on ele is reused as long as the page has not changed
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param ele
+	 *            Element name in the object repository
+	 * @param action
+	 *            Action to be performed on the element
+	 * @return Returns the value returned by the action
+	 */
+	private <T> T withElement(WebDriver driver, String ele, ElementCache.Action<T> action) throws Exception {
+		return elements.apply(driver, ele, getLocator(ele), pageReady.getDocumentId(driver), action);
+	}
+
+	/**
+	 * To time an action with ActionTimingLib. The actions called by the action
+	 * are timed as a part of it
+	 *
+	 * @param action
+	 *            Name of the action
+	 * @param ele
+	 *            Element name in the object repository (OR) or null
+	 * @param body
+	 *            Body of the action
+	 * @return Returns the value returned by the body
+	 */
+	private <T, E extends Exception> T timed(String action, String ele, TimedBody<T, E> body) throws E {
+		ActionTimingLib.begin(action, ele);
+		try {
+			return body.run();
+		}
+		finally {
+			ActionTimingLib.end();
+		}
+	}
+
+	/**
+	 * To time an action which doesn't return a value with ActionTimingLib
+	 *
+	 * @param action
+	 *            Name of the action
+	 * @param ele
+	 *            Element name in the object repository (OR) or null
+	 * @param body
+	 *            Body of the action
+	 */
+	private <E extends Exception> void timed(String action, String ele, TimedStep<E> body) throws E {
+		ActionTimingLib.begin(action, ele);
+		try {
+			body.run();
+		}
+		finally {
+			ActionTimingLib.end();
+		}
 	}
 
 	/**
@@ -66,9 +190,27 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @return element Returns a list of web element
 	 */
 	public List<WebElement> getElements(WebDriver driver, String ele) throws Exception {
-		List<WebElement> element = null;
-		element = driver.findElements(getLocator(ele));
-		return element;
+		return timed("getElements", ele, () -> {
+			List<WebElement> element = null;
+			element = findElements(driver, getLocator(ele));
+			return element;
+		});
+	}
+
+	/**
+	 * To get a list of dynamic web elements whose locator in the object repository
+	 * is a template e.g. xpath#//tr[TBU1]/td
+	 *
+	 * @param ele
+	 *            Element name in the object repository
+	 * @param values
+	 *            Values of the placeholders TBU1, TBU2 ... in order
+	 * @return element Returns a list of web element
+	 */
+	public List<WebElement> getElements(WebDriver driver, String ele, String... values) throws Exception {
+		return timed("getElements", ele, () -> {
+			return findElements(driver, locators.getLocator(ele, values));
+		});
 	}
 
 	/**
@@ -85,17 +227,21 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void click(WebDriver driver, String ele, boolean clickUsingJS) throws Exception {
-		if (clickUsingJS) {
-			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-			jsExecutor.executeScript("arguments[0].click();", getElement(driver, ele));
-		}
-		else {
-			if (isDisplayed(driver, ele)) {
-				WebElement element = getElement(driver, ele);
-				element.click();
+		timed("click", ele, () -> {
+			if (clickUsingJS) {
+				JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+				withElement(driver, ele, element -> jsExecutor.executeScript("arguments[0].click();", element));
 			}
-		}
-		logger.info("Clicked on " + ele);
+			else {
+				if (isDisplayed(driver, ele)) {
+					withElement(driver, ele, element -> {
+						element.click();
+						return null;
+					});
+				}
+			}
+			logger.info("Clicked on " + ele);
+		});
 	}
 
 	/**
@@ -108,13 +254,15 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @note This is used to clear all the search filters in the device search
 	 */
 	public void clickOnMultipleElements(WebDriver driver, String ele) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			List<WebElement> list = getElements(driver, ele);
-			for (WebElement webelement : list) {
-				webelement.click();
-				logger.info("Clicked on " + webelement.toString());
+		timed("clickOnMultipleElements", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				List<WebElement> list = getElements(driver, ele);
+				for (WebElement webelement : list) {
+					webelement.click();
+					logger.info("Clicked on " + webelement.toString());
+				}
 			}
-		}
+		});
 	}
 
 	/**
@@ -125,12 +273,14 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void doubleClick(WebDriver driver, String ele) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			WebElement element = getElement(driver, ele);
-			Actions action = new Actions(driver);
-			action.moveToElement(element).doubleClick().perform();
-			logger.info("Double clicked on " + ele);
-		}
+		timed("doubleClick", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				WebElement element = getElement(driver, ele);
+				Actions action = new Actions(driver);
+				action.moveToElement(element).doubleClick().perform();
+				logger.info("Double clicked on " + ele);
+			}
+		});
 	}
 
 	/**
@@ -149,22 +299,26 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void sendKeys(WebDriver driver, String ele, String strText, boolean sendKeysWithJS) throws Exception {
-		if (strText != null) {
-			if (sendKeysWithJS) {
-				JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-				jsExecutor.executeScript("arguments[0].setAttribute('value', arguments[1])", getElement(driver, ele),
-						strText);
-			}
-			else {
-				if (isDisplayed(driver, ele)) {
-					WebElement element = getElement(driver, ele);
-					element.sendKeys(strText);
+		timed("sendKeys", ele, () -> {
+			if (strText != null) {
+				if (sendKeysWithJS) {
+					JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+					withElement(driver, ele, element -> jsExecutor
+							.executeScript("arguments[0].setAttribute('value', arguments[1])", element, strText));
+				}
+				else {
+					if (isDisplayed(driver, ele)) {
+						withElement(driver, ele, element -> {
+							element.sendKeys(strText);
+							return null;
+						});
+					}
 				}
+				logger.info("Set text - " + strText + " on " + ele);
 			}
-			logger.info("Set text - " + strText + " on " + ele);
-		}
-		else
-			logger.warn("There is no text to enter");
+			else
+				logger.warn("There is no text to enter");
+		});
 	}
 
 	/**
@@ -182,11 +336,13 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void sendKeys(WebDriver driver, String ele, Keys key) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			WebElement element = getElement(driver, ele);
-			element.sendKeys(key);
-			logger.info("Set key - " + key + " on " + ele);
-		}
+		timed("sendKeys", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				WebElement element = getElement(driver, ele);
+				element.sendKeys(key);
+				logger.info("Set key - " + key + " on " + ele);
+			}
+		});
 	}
 
 	/**
@@ -202,9 +358,11 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void uploadFile(WebDriver driver, String ele, String path) throws Exception {
-		waitUntilPageLoad(driver);
-		getElement(driver, ele).sendKeys(path);
-		logger.info("Uploaded file " + path + " in " + ele);
+		timed("uploadFile", ele, () -> {
+			waitUntilPageLoad(driver);
+			getElement(driver, ele).sendKeys(path);
+			logger.info("Uploaded file " + path + " in " + ele);
+		});
 	}
 
 	/**
@@ -216,20 +374,22 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void robotSendKeys(String text) throws Exception {
-		Robot robot = new Robot();
-		robot.delay(500);
-		StringSelection stringSelection = new StringSelection(text);
-		Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-		clipboard.setContents(stringSelection, stringSelection);
-		robot.keyPress(KeyEvent.VK_CONTROL);
-		robot.keyPress(KeyEvent.VK_V);
-		robot.keyRelease(KeyEvent.VK_V);
-		robot.keyRelease(KeyEvent.VK_CONTROL);
-		robot.delay(1000);
-		robot.keyPress(KeyEvent.VK_ENTER);
-		robot.keyRelease(KeyEvent.VK_ENTER);
-		logger.info("Send keys:" + text + " to the active screen");
-		robot.delay(1000);
+		timed("robotSendKeys", null, () -> {
+			Robot robot = new Robot();
+			robot.delay(500);
+			StringSelection stringSelection = new StringSelection(text);
+			Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+			clipboard.setContents(stringSelection, stringSelection);
+			robot.keyPress(KeyEvent.VK_CONTROL);
+			robot.keyPress(KeyEvent.VK_V);
+			robot.keyRelease(KeyEvent.VK_V);
+			robot.keyRelease(KeyEvent.VK_CONTROL);
+			robot.delay(1000);
+			robot.keyPress(KeyEvent.VK_ENTER);
+			robot.keyRelease(KeyEvent.VK_ENTER);
+			logger.info("Send keys:" + text + " to the active screen");
+			robot.delay(1000);
+		});
 	}
 
 	/**
@@ -238,12 +398,14 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void robotSendEnterKey() throws Exception {
-		Robot robot = new Robot();
-		robot.delay(2000);
-		robot.keyPress(KeyEvent.VK_ENTER);
-		robot.keyRelease(KeyEvent.VK_ENTER);
-		logger.info("Sent ENTER to the active screen");
-		robot.delay(2000);
+		timed("robotSendEnterKey", null, () -> {
+			Robot robot = new Robot();
+			robot.delay(2000);
+			robot.keyPress(KeyEvent.VK_ENTER);
+			robot.keyRelease(KeyEvent.VK_ENTER);
+			logger.info("Sent ENTER to the active screen");
+			robot.delay(2000);
+		});
 	}
 
 	/**
@@ -256,11 +418,13 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             library method
 	 */
 	public void clear(WebDriver driver, String ele) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			WebElement element = getElement(driver, ele);
-			element.clear();
-			logger.info("Cleared the text from " + ele);
-		}
+		timed("clear", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				WebElement element = getElement(driver, ele);
+				element.clear();
+				logger.info("Cleared the text from " + ele);
+			}
+		});
 	}
 
 	/**
@@ -277,24 +441,26 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             library method
 	 */
 	public void selectCheckbox(WebDriver driver, String ele, boolean check) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			if (check == true) {
-				if (!isSelected(driver, ele)) {
-					click(driver, ele, false);
-					logger.info("Selected the checkbox " + ele);
+		timed("selectCheckbox", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				if (check == true) {
+					if (!isSelected(driver, ele)) {
+						click(driver, ele, false);
+						logger.info("Selected the checkbox " + ele);
+					}
+					else
+						logger.info("Checkbox " + ele + " is already selected");
 				}
-				else
-					logger.info("Checkbox " + ele + " is already selected");
-			}
-			else if (check == false) {
-				if (isSelected(driver, ele)) {
-					click(driver, ele, false);
-					logger.info("Unselected the checkbox " + ele);
+				else if (check == false) {
+					if (isSelected(driver, ele)) {
+						click(driver, ele, false);
+						logger.info("Unselected the checkbox " + ele);
+					}
+					else
+						logger.info("Checkbox " + ele + " is already unselected");
 				}
-				else
-					logger.info("Checkbox " + ele + " is already unselected");
 			}
-		}
+		});
 	}
 
 	/**
@@ -310,11 +476,83 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void selectDropdown(WebDriver driver, String ele, String strText) throws Exception {
-		if (isDisplayed(driver, ele)) {
-			Select sel = new Select(getElement(driver, ele));
-			sel.selectByVisibleText(strText);
-			logger.info("Selected " + strText + "in " + ele);
-		}
+		timed("selectDropdown", ele, () -> {
+			if (isDisplayed(driver, ele)) {
+				Select sel = new Select(getElement(driver, ele));
+				sel.selectByVisibleText(strText);
+				logger.info("Selected " + strText + "in " + ele);
+			}
+		});
+	}
+
+	/**
+	 * To fill a form i.e. set the values of many text fields, dropdowns and
+	 * checkboxes with one call to the browser. Fields with a null value are
+	 * skipped
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param fields
+	 *            Map of element name in the object repository (OR) to the value.
+	 *            For a checkbox pass true / false
+	 * @throws Exception
+	 *             if any of the fields is not displayed, not enabled or its value
+	 *             can't be set
+	 */
+	public void fillForm(WebDriver driver, Map<String, String> fields) throws Exception {
+		timed("fillForm", null, () -> {
+			fillForm(driver, fields, Collections.<String>emptySet());
+		});
+	}
+
+	/**
+	 * To fill a form with one call to the browser, except for the fields which
+	 * need native keystrokes e.g. an auto complete. Those fields are filled with
+	 * sendKeys(), selectDropdown() or selectCheckbox() after the rest of the form
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param fields
+	 *            Map of element name in the object repository (OR) to the value.
+	 *            For a checkbox pass true / false
+	 * @param nativeFields
+	 *            Element names which should be filled with native keystrokes
+	 * @throws Exception
+	 *             if any of the other fields is not displayed, not enabled or its
+	 *             value can't be set
+	 */
+	public void fillForm(WebDriver driver, Map<String, String> fields, Set<String> nativeFields) throws Exception {
+		timed("fillForm", null, () -> {
+			Map<String, String> fieldsToFill = new LinkedHashMap<String, String>();
+			for (Map.Entry<String, String> field : fields.entrySet()) {
+				if (field.getValue() != null)
+					fieldsToFill.put(field.getKey(), field.getValue());
+			}
+			waitUntilPageLoad(driver);
+			List<String> notFilled = new ArrayList<String>();
+			Map<String, Map<String, Object>> results = formFill.fill(driver, prpOR, fieldsToFill, nativeFields);
+			for (Map.Entry<String, Map<String, Object>> result : results.entrySet()) {
+				String ele = result.getKey(), text = fieldsToFill.get(ele);
+				Object status = result.getValue().get("status"), kind = result.getValue().get("kind");
+				if (FormFillLib.SET.equals(status))
+					logger.info("Set text - " + text + " on " + ele);
+				else if (nativeFields.contains(ele)) {
+					if (FormFillLib.SELECT.equals(kind))
+						selectDropdown(driver, ele, text);
+					else if (FormFillLib.CHECKBOX.equals(kind))
+						selectCheckbox(driver, ele, text.equalsIgnoreCase(Flag.TRUE.toString())
+								|| text.equalsIgnoreCase(Flag.YES.toString()) || text.equals(Flag.ONE.toString()));
+					else {
+						clear(driver, ele);
+						sendKeys(driver, ele, text, false);
+					}
+				}
+				else
+					notFilled.add(ele + " (" + status + ")");
+			}
+			if (!notFilled.isEmpty())
+				throw new Exception("Unable to fill the fields " + notFilled);
+		});
 	}
 
 	/**
@@ -332,29 +570,34 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void selectList(WebDriver driver, String ele, String strText, boolean isList) throws Exception {
-		waitUntilPageLoad(driver);
-		if (isList) {
-			List<WebElement> options = getElements(driver, ele);
-			if (options == null || options.isEmpty())
-				throw new CustomException.UIElementNotFound(ele + " not found");
-			for (WebElement option : options) {
-				if (option.getText().equalsIgnoreCase(strText)) {
-					option.click();
-					logger.info("Selected " + strText + " in list of tag <li> " + ele);
-					break;
+		timed("selectList", ele, () -> {
+			waitUntilPageLoad(driver);
+			if (isList) {
+				List<WebElement> options = getElements(driver, ele);
+				if (options == null || options.isEmpty())
+					throw new CustomException.UIElementNotFound(ele + " not found");
+				for (WebElement option : options) {
+					if (option.getText().equalsIgnoreCase(strText)) {
+						option.click();
+						logger.info("Selected " + strText + " in list of tag <li> " + ele);
+						break;
+					}
 				}
 			}
-		}
-		else {
-			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-			WebElement element = getElement(driver, ele);
-			jsExecutor.executeScript("arguments[0].setAttribute('value', arguments[1])", element, strText);
-			logger.info("Selected " + strText + " in list of tag <input> " + ele);
-		}
+			else {
+				JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+				WebElement element = getElement(driver, ele);
+				jsExecutor.executeScript("arguments[0].setAttribute('value', arguments[1])", element, strText);
+				logger.info("Selected " + strText + " in list of tag <input> " + ele);
+			}
+		});
 	}
 
 	/**
-	 * This method is executed until the page loads and AJAX call is finished.
+	 * This method is executed until the page loads and AJAX call is finished. The
+	 * page is idle when it is loaded, there are no XHR / fetch / jQuery requests
+	 * in flight and the DOM has not changed for 100 * ExecSpeed ms. The wait is
+	 * limited to RetryAttempts seconds.
 	 *
 	 * @param driver
 	 *            Browser driver object
@@ -363,37 +606,24 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @note This is called by isDisplayed() method.
 	 */
 	public void waitUntilPageLoad(WebDriver driver) throws Exception {
-		int pageLoadCtr = 0, initialSleep = 100;
-		JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-		try {
-			int waitTime = Integer.parseInt(configLib.getRetryAttempts());
-			Thread.sleep(initialSleep * Integer.parseInt(configLib.getExecSpeed()));
-			while (true) {
-				if ((Boolean) jsExecutor.executeScript("return document.readyState").equals("complete")) {
-					if ((Boolean) jsExecutor.executeScript("return window.jQuery != undefined && jQuery.active == 0"))
-						break;
-					Thread.sleep(2000);
-					logger.info("Waiting for AJAX calls to complete...");
-				}
-				else {
-					Thread.sleep(2000);
-					logger.info("Loading the page...");
-				}
-				if (getElements(driver, "blankPage").size() == 0)
-					throw new Exception("Retrieved blank page");
-				else {
-					pageLoadCtr++;
-					if (pageLoadCtr >= waitTime / 2)
-						break;
+		timed("waitUntilPageLoad", null, () -> {
+			int quietPeriod = 100;
+			try {
+				int waitTime = Integer.parseInt(configLib.getRetryAttempts());
+				if (!pageReady.waitUntilReady("UIActionsLib.waitUntilPageLoad", driver,
+						TimeUnit.SECONDS.toMillis(waitTime),
+						quietPeriod * Integer.parseInt(configLib.getExecSpeed()))) {
+					if (getElements(driver, "blankPage").size() == 0)
+						throw new Exception("Retrieved blank page");
 				}
 			}
-		}
-		catch (NumberFormatException e) {
-			logger.error("Please pass appropriate config values", e);
-		}
-		catch (Exception e) {
-			throw new Exception("Unable to load the page");
-		}
+			catch (NumberFormatException e) {
+				logger.error("Please pass appropriate config values", e);
+			}
+			catch (Exception e) {
+				throw new Exception("Unable to load the page");
+			}
+		});
 	}
 
 	/**
@@ -411,52 +641,24 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @note This method calls waitForAjax() method.
 	 */
 	public boolean isDisplayed(WebDriver driver, String ele) throws Exception {
-		Instant startTime;
-		boolean flag = false;
-		int waitTime = Integer.parseInt(configLib.getRetryAttempts());
-		WebDriverWait wait = new WebDriverWait(driver, waitTime);
-		try {
-			startTime = Instant.now();
-			for (int second = 1; second <= waitTime; second++) {
-				try {
-					if (isTimedOut(startTime))
-						break;
-					try {
-						waitUntilPageLoad(driver);
-					}
-					catch (Exception e) {
-						break;
-					}
-					if (getElement(driver, ele).isDisplayed()) {
-						try {
-							waitUntilPageLoad(driver);
-						}
-						catch (Exception e) {
-							break;
-						}
-						wait.until(ExpectedConditions.visibilityOfElementLocated(getLocator(ele)));
-						flag = true;
-						logger.debug(ele + " is ready for action in the UI");
-						// verticalScrollToElement(ele);
-						break;
-					}
-					logger.warn("Waiting for " + ele + " to be available");
-					Thread.sleep(1000);
-				}
-				catch (Exception e) {
-					logger.warn(ele + " is not visible in the UI. Trying " + (second) + " time");
-					Thread.sleep(1000);
+		return timed("isDisplayed", ele, () -> {
+			boolean flag = false;
+			int waitTime = Integer.parseInt(configLib.getRetryAttempts());
+			try {
+				waitUntilPageLoad(driver);
+				flag = wait.until("UIActionsLib.isDisplayed", ele + " to be displayed",
+						() -> withElement(driver, ele, WebElement::isDisplayed), TimeUnit.SECONDS.toMillis(waitTime));
+				if (flag == false) {
+					throw new Exception("Unable to find the element");
 				}
+				logger.debug(ele + " is ready for action in the UI");
 			}
-			if (flag == false) {
-				throw new Exception("Unable to find the element");
+			catch (Exception e) {
+				throw new Exception(ele + " with identfier " + prpOR.getProperty(ele).split(("#"), 2)[1]
+						+ " is not displayed in the UI. Please check the object property or synchronize the script");
 			}
-		}
-		catch (Exception e) {
-			throw new Exception(ele + " with identfier " + prpOR.getProperty(ele).split(("#"), 2)[1]
-					+ " is not displayed in the UI. Please check the object property or synchronize the script");
-		}
-		return flag;
+			return flag;
+		});
 	}
 
 	/**
@@ -493,11 +695,13 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public void verticalScrollToElement(WebDriver driver, String ele) throws Exception {
-		waitUntilPageLoad(driver);
-		JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-		WebElement element = getElement(driver, ele);
-		jsExecutor.executeScript("arguments[0].scrollIntoView();", element);
-		logger.info("Vertically scrolled to element " + ele);
+		timed("verticalScrollToElement", ele, () -> {
+			waitUntilPageLoad(driver);
+			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+			WebElement element = getElement(driver, ele);
+			jsExecutor.executeScript("arguments[0].scrollIntoView();", element);
+			logger.info("Vertically scrolled to element " + ele);
+		});
 	}
 
 	/**
@@ -510,13 +714,13 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void verticalScrollToElement(WebDriver driver, String relativeEle, String ele) throws Exception {
-		waitUntilPageLoad(driver);
-		Actions action = new Actions(driver);
-		Thread.sleep(1000);
-		action.moveToElement(getElement(driver, relativeEle));
-		Thread.sleep(1000);
-		verticalScrollToElement(driver, ele);
+		timed("verticalScrollToElement", ele, () -> {
+			waitUntilPageLoad(driver);
+			Actions action = new Actions(driver);
+			action.moveToElement(getElement(driver, relativeEle));
+			verticalScrollToElement(driver, ele);
 
+		});
 	}
 
 	/**
@@ -543,63 +747,65 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *       To scroll to top give offset as (xOffset - 0, yOffset - negative)
 	 */
 	public void scroll(WebDriver driver, String scroll, String scrollToEle, int xOffset, int yOffset) throws Exception {
-		Actions action = new Actions(driver);
-		WebElement scrollEle = null;
-		int x = 0, y = 0;
-		waitUntilPageLoad(driver);
-		if (!isNotDisplayed(driver, scroll)) {
-			click(driver, scroll, false);
-			scrollEle = getElement(driver, scroll);
-			if (xOffset == 0) {
-				action.clickAndHold(scrollEle).moveByOffset(0, -1000).perform();
-				logger.info("Scrolled to the top end");
-			}
-			else if (yOffset == 0) {
-				action.clickAndHold(scrollEle).moveByOffset(-1000, 0).perform();
-				logger.info("Scrolled to the left end");
-			}
-			while (true) {
-				try {
-					Thread.sleep(1500);
-					if (getElement(driver, scrollToEle).isDisplayed()) {
-						logger.info("Element " + scrollToEle + " is displayed after scrolling");
-						break;
-					}
-					else
-						throw new Exception("Trying to scroll to element " + scrollToEle);
+		timed("scroll", scroll, () -> {
+			Actions action = new Actions(driver);
+			WebElement scrollEle = null;
+			int x = 0, y = 0;
+			waitUntilPageLoad(driver);
+			if (!isNotDisplayed(driver, scroll)) {
+				click(driver, scroll, false);
+				scrollEle = getElement(driver, scroll);
+				if (xOffset == 0) {
+					action.clickAndHold(scrollEle).moveByOffset(0, -1000).perform();
+					logger.info("Scrolled to the top end");
+				}
+				else if (yOffset == 0) {
+					action.clickAndHold(scrollEle).moveByOffset(-1000, 0).perform();
+					logger.info("Scrolled to the left end");
 				}
-				catch (Exception e) {
-					logger.info("Scrolling to find the element " + scrollToEle);
-					x = scrollEle.getLocation().getX();
-					y = scrollEle.getLocation().getY();
-					action.moveToElement(scrollEle);
-					action.clickAndHold(scrollEle);
-					action.moveByOffset(xOffset, yOffset);
-					action.release(scrollEle);
-					action.perform();
-					logger.info("Scrolled to x - " + scrollEle.getLocation().getX() + " and y - "
-							+ scrollEle.getLocation().getY());
-
-					if (yOffset == 0) {
-						if (x == scrollEle.getLocation().getX()) {
-							logger.info(
-									"Reached end of horizontal scroll. Scroll in the opposite direction to find the element");
+				while (true) {
+					try {
+						if (wait.until("UIActionsLib.scroll", scrollToEle + " to be displayed after scrolling",
+								() -> getElement(driver, scrollToEle).isDisplayed(), 1500)) {
+							logger.info("Element " + scrollToEle + " is displayed after scrolling");
 							break;
 						}
+						else
+							throw new Exception("Trying to scroll to element " + scrollToEle);
 					}
-					else if (xOffset == 0) {
-						if (y == scrollEle.getLocation().getY()) {
-							logger.info(
-									"Reached end of vertical scroll. Scroll in the opposite direction to find the element");
-							break;
+					catch (Exception e) {
+						logger.info("Scrolling to find the element " + scrollToEle);
+						x = scrollEle.getLocation().getX();
+						y = scrollEle.getLocation().getY();
+						action.moveToElement(scrollEle);
+						action.clickAndHold(scrollEle);
+						action.moveByOffset(xOffset, yOffset);
+						action.release(scrollEle);
+						action.perform();
+						logger.info("Scrolled to x - " + scrollEle.getLocation().getX() + " and y - "
+								+ scrollEle.getLocation().getY());
+
+						if (yOffset == 0) {
+							if (x == scrollEle.getLocation().getX()) {
+								logger.info(
+										"Reached end of horizontal scroll. Scroll in the opposite direction to find the element");
+								break;
+							}
+						}
+						else if (xOffset == 0) {
+							if (y == scrollEle.getLocation().getY()) {
+								logger.info(
+										"Reached end of vertical scroll. Scroll in the opposite direction to find the element");
+								break;
+							}
 						}
-					}
 
+					}
 				}
 			}
-		}
-		else
-			logger.info(scroll + " - scroll bar is not displayed");
+			else
+				logger.info(scroll + " - scroll bar is not displayed");
+		});
 	}
 
 	/**
@@ -613,24 +819,26 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *         element is visible
 	 */
 	public boolean isNotDisplayed(WebDriver driver, String ele) throws Exception {
-		boolean isNotDisplayed = false;
-		waitUntilPageLoad(driver);
-		try {
-			if (!getElement(driver, ele).isDisplayed()) {
+		return timed("isNotDisplayed", ele, () -> {
+			boolean isNotDisplayed = false;
+			waitUntilPageLoad(driver);
+			try {
+				if (!getElement(driver, ele).isDisplayed()) {
+					isNotDisplayed = true;
+					logger.info("Element " + ele + " is not displayed in the UI");
+				}
+				else
+					logger.error("Element " + ele + " is displayed");
+			}
+			catch (NoSuchElementException e) {
 				isNotDisplayed = true;
-				logger.info("Element " + ele + " is not displayed in the UI");
+				logger.error("Element " + ele + " is not displayed in the UI. Please check the locator value");
 			}
-			else
-				logger.error("Element " + ele + " is displayed");
-		}
-		catch (NoSuchElementException e) {
-			isNotDisplayed = true;
-			logger.error("Element " + ele + " is not displayed in the UI. Please check the locator value");
-		}
-		catch (Exception e) {
-			logger.error("Unable to find the element " + ele, e);
-		}
-		return isNotDisplayed;
+			catch (Exception e) {
+				logger.error("Unable to find the element " + ele, e);
+			}
+			return isNotDisplayed;
+		});
 	}
 
 	/**
@@ -645,21 +853,23 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public boolean isDisabled(WebDriver driver, String ele) throws Exception {
-		boolean isDisabled = false;
-		waitUntilPageLoad(driver);
-		try {
-			WebElement element = getElement(driver, ele);
-			if (!element.isEnabled()) {
-				isDisabled = true;
-				logger.info("Element " + ele + " is disabled");
+		return timed("isDisabled", ele, () -> {
+			boolean isDisabled = false;
+			waitUntilPageLoad(driver);
+			try {
+				WebElement element = getElement(driver, ele);
+				if (!element.isEnabled()) {
+					isDisabled = true;
+					logger.info("Element " + ele + " is disabled");
+				}
+				else
+					logger.error("Element " + ele + " is enabled");
 			}
-			else
-				logger.error("Element " + ele + " is enabled");
-		}
-		catch (Exception e) {
-			logger.error("Unable to check if the element " + ele + " is enabled or disabled", e);
-		}
-		return isDisabled;
+			catch (Exception e) {
+				logger.error("Unable to check if the element " + ele + " is enabled or disabled", e);
+			}
+			return isDisabled;
+		});
 	}
 
 	/**
@@ -675,25 +885,26 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public String getAttribute(WebDriver driver, String ele, String attr) throws Exception {
-		String attributeValue = null;
-		waitUntilPageLoad(driver);
-		try {
-			WebElement element = getElement(driver, ele);
-			if (element.isDisplayed()) {
-				attributeValue = element.getAttribute(attr);
+		return timed("getAttribute", ele, () -> {
+			String attributeValue = null;
+			waitUntilPageLoad(driver);
+			try {
+				attributeValue = withElement(driver, ele, element -> {
+					if (!element.isDisplayed())
+						throw new Exception(ele + " is not displayed");
+					return element.getAttribute(attr);
+				});
 				if (attributeValue != null)
 					logger.info("Element - " + ele + " " + attr + " value is " + attributeValue);
 				else {
 					logger.error(attr + " doesn't exist or is null for element " + ele);
 				}
 			}
-			else
-				throw new Exception(ele + " is not displayed");
-		}
-		catch (Exception e) {
-			logger.error("Unable to retrieve the attribute " + attr + " of element " + ele, e);
-		}
-		return attributeValue;
+			catch (Exception e) {
+				logger.error("Unable to retrieve the attribute " + attr + " of element " + ele, e);
+			}
+			return attributeValue;
+		});
 	}
 
 	/**
@@ -710,21 +921,23 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public int getInnerAttribute(WebDriver driver, String ele, String outerAttr, String innerAttr) throws Exception {
-		String outerAttrVal, attrWithPx;
-		CommonUtilLib utilLib = new CommonUtilLib();
-		int attrVal = 0;
-		waitUntilPageLoad(driver);
-		try {
-			outerAttrVal = getAttribute(driver, ele, outerAttr);
-			attrWithPx = outerAttrVal.substring(outerAttrVal.indexOf(innerAttr));
-			attrWithPx = attrWithPx.substring(0, attrWithPx.indexOf(";"));
-			attrVal = (int) utilLib.extractDigits(attrWithPx);
-			logger.info(innerAttr + " attribute value is " + attrVal);
-		}
-		catch (Exception e) {
-			logger.error("Unabled to fetch the inner attribute " + innerAttr + " from " + outerAttr, e);
-		}
-		return attrVal;
+		return timed("getInnerAttribute", ele, () -> {
+			String outerAttrVal, attrWithPx;
+			CommonUtilLib utilLib = new CommonUtilLib();
+			int attrVal = 0;
+			waitUntilPageLoad(driver);
+			try {
+				outerAttrVal = getAttribute(driver, ele, outerAttr);
+				attrWithPx = outerAttrVal.substring(outerAttrVal.indexOf(innerAttr));
+				attrWithPx = attrWithPx.substring(0, attrWithPx.indexOf(";"));
+				attrVal = (int) utilLib.extractDigits(attrWithPx);
+				logger.info(innerAttr + " attribute value is " + attrVal);
+			}
+			catch (Exception e) {
+				logger.error("Unabled to fetch the inner attribute " + innerAttr + " from " + outerAttr, e);
+			}
+			return attrVal;
+		});
 	}
 
 	/**
@@ -744,19 +957,35 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public boolean waitToDisappear(WebDriver driver, String ele, int time) throws Exception {
-		Boolean flag = false;
-		logger.info("Waiting for spinner " + ele + " to disappear");
-		waitUntilPageLoad(driver);
-		try {
-			WebDriverWait wait = new WebDriverWait(driver, time);
-			flag = wait.until(ExpectedConditions.invisibilityOfElementLocated(getLocator(ele)));
-			logger.info(ele + " has disppeared");
-		}
-		catch (Exception e) {
-			logger.error("Spinner" + ele + " has not disappeared", e);
-		}
-		waitUntilPageLoad(driver);
-		return flag;
+		return timed("waitToDisappear", ele, () -> {
+			boolean flag = false;
+			logger.info("Waiting for spinner " + ele + " to disappear");
+			waitUntilPageLoad(driver);
+			try {
+				By locator = getLocator(ele);
+				flag = wait.until("UIActionsLib.waitToDisappear", ele + " to disappear", () -> {
+					for (WebElement element : driver.findElements(locator)) {
+						try {
+							if (element.isDisplayed())
+								return false;
+						}
+						catch (StaleElementReferenceException e) {
+							// The element is removed from the page
+						}
+					}
+					return true;
+				}, TimeUnit.SECONDS.toMillis(time));
+				if (flag)
+					logger.info(ele + " has disppeared");
+				else
+					logger.error("Spinner" + ele + " has not disappeared");
+			}
+			catch (Exception e) {
+				logger.error("Spinner" + ele + " has not disappeared", e);
+			}
+			waitUntilPageLoad(driver);
+			return flag;
+		});
 	}
 
 	/**
@@ -771,25 +1000,25 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *             which will be caught in the application component library method
 	 */
 	public String getText(WebDriver driver, String ele, boolean fromTextBox) throws Exception {
-		WebElement element;
-		String text = null, errText = "internal error";
-		waitUntilPageLoad(driver);
-		element = getElement(driver, ele);
-		if (element.isDisplayed()) {
-			if (fromTextBox)
-				text = element.getAttribute("value");
-			else {
-				text = element.getText();
-				if (text.contains(errText))
+		return timed("getText", ele, () -> {
+			String text = null, errText = "internal error";
+			waitUntilPageLoad(driver);
+			text = withElement(driver, ele, element -> {
+				if (!element.isDisplayed())
+					return null;
+				return fromTextBox ? element.getAttribute("value") : element.getText();
+			});
+			if (text != null) {
+				if (!fromTextBox && text.contains(errText))
 					throw new Exception("An internal error has occurred in the application");
+				logger.info("Got text: " + text + " from " + ele);
 			}
-			logger.info("Got text: " + text + " from " + ele);
-		}
-		else {
-			throw new Exception("Unable to get text from " + ele
-					+ ". Check if the object is visible and the locator is accurate or not");
-		}
-		return text.trim();
+			else {
+				throw new Exception("Unable to get text from " + ele
+						+ ". Check if the object is visible and the locator is accurate or not");
+			}
+			return text.trim();
+		});
 	}
 
 	/**
@@ -802,18 +1031,20 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public int getElementsCount(WebDriver driver, String ele) throws Exception {
-		int count = 0;
-		List<WebElement> elments;
-		waitUntilPageLoad(driver);
-		try {
-			elments = getElements(driver, ele);
-			count = elments.size();
-			logger.info("Found " + count + " elements which matches the locator of " + ele);
-		}
-		catch (Exception e) {
-			logger.error("Unable to find number of elements", e);
-		}
-		return count;
+		return timed("getElementsCount", ele, () -> {
+			int count = 0;
+			List<WebElement> elments;
+			waitUntilPageLoad(driver);
+			try {
+				elments = getElements(driver, ele);
+				count = elments.size();
+				logger.info("Found " + count + " elements which matches the locator of " + ele);
+			}
+			catch (Exception e) {
+				logger.error("Unable to find number of elements", e);
+			}
+			return count;
+		});
 	}
 
 	/**
@@ -826,18 +1057,20 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public WebElement getLastElement(WebDriver driver, String ele) throws Exception {
-		List<WebElement> elments;
-		WebElement lastEle = null;
-		waitUntilPageLoad(driver);
-		try {
-			elments = getElements(driver, ele);
-			lastEle = elments.get(elments.size() - 1);
-			logger.info("Located the last element of " + ele);
-		}
-		catch (Exception e) {
-			logger.error("Unable to get the last element", e);
-		}
-		return lastEle;
+		return timed("getLastElement", ele, () -> {
+			List<WebElement> elments;
+			WebElement lastEle = null;
+			waitUntilPageLoad(driver);
+			try {
+				elments = getElements(driver, ele);
+				lastEle = elments.get(elments.size() - 1);
+				logger.info("Located the last element of " + ele);
+			}
+			catch (Exception e) {
+				logger.error("Unable to get the last element", e);
+			}
+			return lastEle;
+		});
 	}
 
 	/**
@@ -851,26 +1084,52 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @note Need to update the logic
 	 */
 	public boolean isVisibleInViewport(WebDriver driver, String ele) throws Exception {
-		boolean flag = false;
-		waitUntilPageLoad(driver);
-		try {
-			WebElement element = getElement(driver, ele);
-			flag = (Boolean) ((JavascriptExecutor) driver).executeScript(
-					"var elem = arguments[0],                 " + "  box = elem.getBoundingClientRect(),    "
-							+ "  cx = box.left + box.width / 2,         " + "  cy = box.top + box.height / 2,         "
-							+ "  e = document.elementFromPoint(cx, cy); " + "for (; e; e = e.parentElement) {         "
-							+ "  if (e === elem)                        " + "    return true;                         "
-							+ "}                                        " + "return false;                            ",
-					element);
-			if (flag)
-				logger.info("Element " + ele + " is in the view port");
-			else
-				logger.info("Element " + ele + " is not in the view port");
-		}
-		catch (Exception e) {
-			logger.error("Unable to find if the element " + ele + " is in the view port or not!", e);
-		}
-		return flag;
+		return timed("isVisibleInViewport", ele, () -> {
+			boolean flag = false;
+			waitUntilPageLoad(driver);
+			try {
+				WebElement element = getElement(driver, ele);
+				flag = (Boolean) ((JavascriptExecutor) driver).executeScript(
+						"var elem = arguments[0],                 " + "  box = elem.getBoundingClientRect(),    "
+								+ "  cx = box.left + box.width / 2,         " + "  cy = box.top + box.height / 2,         "
+								+ "  e = document.elementFromPoint(cx, cy); " + "for (; e; e = e.parentElement) {         "
+								+ "  if (e === elem)                        " + "    return true;                         "
+								+ "}                                        " + "return false;                            ",
+						element);
+				if (flag)
+					logger.info("Element " + ele + " is in the view port");
+				else
+					logger.info("Element " + ele + " is not in the view port");
+			}
+			catch (Exception e) {
+				logger.error("Unable to find if the element " + ele + " is in the view port or not!", e);
+			}
+			return flag;
+		});
+	}
+
+	/**
+	 * To get the states of many elements in one call to the browser e.g. to verify
+	 * all the fields of a page
+	 *
+	 * @param driver
+	 *            Browser driver object
+	 * @param eles
+	 *            Element names in the object repository (OR)
+	 * @param states
+	 *            ElementState names e.g. ElementState.DISPLAYED.toString() or the
+	 *            names of the attributes to be read
+	 * @return states Returns a map of element name to a map of state name to
+	 *         value. An element which is not found has only present = false
+	 * @throws Exception
+	 *             if an element doesn't exist in the OR
+	 */
+	public Map<String, Map<String, Object>> getElementStates(WebDriver driver, Collection<String> eles,
+			String... states) throws Exception {
+		return timed("getElementStates", null, () -> {
+			waitUntilPageLoad(driver);
+			return elementStates.getStates(driver, prpOR, eles, states);
+		});
 	}
 
 	/**
@@ -881,12 +1140,14 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @note Need to update the logic
 	 */
 	public void changeBrowserZoom(WebDriver driver, String strBrowser, int zoomLevel) {
-		JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
-		if (strBrowser.equalsIgnoreCase(Browser.FIREFOX.toString())
-				|| strBrowser.equalsIgnoreCase(Browser.CHROME.toString()))
-			jsExecutor.executeScript("document.body.style.zoom='" + zoomLevel + "'");
-		else if (strBrowser.equalsIgnoreCase(Browser.IE.toString()))
-			jsExecutor.executeScript("document.body.style.MozTransform = 'scale(2)';");
+		timed("changeBrowserZoom", null, () -> {
+			JavascriptExecutor jsExecutor = (JavascriptExecutor) driver;
+			if (strBrowser.equalsIgnoreCase(Browser.FIREFOX.toString())
+					|| strBrowser.equalsIgnoreCase(Browser.CHROME.toString()))
+				jsExecutor.executeScript("document.body.style.zoom='" + zoomLevel + "'");
+			else if (strBrowser.equalsIgnoreCase(Browser.IE.toString()))
+				jsExecutor.executeScript("document.body.style.MozTransform = 'scale(2)';");
+		});
 	}
 
 	/**
@@ -897,17 +1158,18 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void refreshPage(WebDriver driver) throws Exception {
-		logger.info("Refreshing the page...");
-		waitUntilPageLoad(driver);
-		try {
+		timed("refreshPage", null, () -> {
+			logger.info("Refreshing the page...");
+			waitUntilPageLoad(driver);
+			try {
 
-			driver.navigate().refresh();
-			Thread.sleep(3000);
-		}
-		catch (Exception e) {
-			logger.error("Unable to refresh the page", e);
-		}
-		waitUntilPageLoad(driver);
+				driver.navigate().refresh();
+			}
+			catch (Exception e) {
+				logger.error("Unable to refresh the page", e);
+			}
+			waitUntilPageLoad(driver);
+		});
 	}
 
 	/**
@@ -918,54 +1180,27 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *            browser tab
 	 */
 	public void closeBrowser(WebDriver driver, String strBrowser, boolean closeAll) {
-		try {
-			if (driver != null) {
-				if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1")) {
-					if (strBrowser == null || strBrowser.equals(Browser.CHROME.toString())) {
-						if (chromePool.keySet().contains(driver))
-							chromePool.remove(driver);
-					}
-					else if (strBrowser.equals(Browser.FIREFOX.toString())) {
-						if (firefoxPool.keySet().contains(driver))
-							firefoxPool.remove(driver);
+		timed("closeBrowser", null, () -> {
+			try {
+				if (driver != null) {
+					if (SetUpTearDownScript.createBrowserPool.equalsIgnoreCase("1"))
+						BrowserPool.discardFromAll(driver);
+					if (closeAll) {
+						driver.quit();
+						logger.info("Closed all browser windows");
 					}
-					else if (strBrowser.equals(Browser.IE.toString())) {
-						if (iePool.keySet().contains(driver))
-							iePool.remove(driver);
+					else {
+						driver.close();
+						logger.info("Closed currently active browser window");
 					}
 				}
-				if (closeAll) {
-					driver.quit();
-					logger.info("Closed all browser windows");
-				}
-				else {
-					driver.close();
-					logger.info("Closed currently active browser window");
-				}
-			}
-			else
-				logger.debug("There is no browser to close");
-		}
-		catch (Exception e) {
-			logger.error("Unable to close the browser", e);
-		}
-	}
-
-	/**
-	 * To close all the browser driver pools
-	 *
-	 * @param browserPool
-	 *            Map containing web drivers
-	 */
-	public void closeBrowser(Map<WebDriver, Integer> browserPool) {
-		for (Map.Entry<WebDriver, Integer> browser : browserPool.entrySet()) {
-			try {
-				browser.getKey().close();
+				else
+					logger.debug("There is no browser to close");
 			}
 			catch (Exception e) {
-				logger.debug("There is no browser driver to close");
+				logger.error("Unable to close the browser", e);
 			}
-		}
+		});
 	}
 
 	/**
@@ -978,20 +1213,21 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *         element is not selected
 	 */
 	public boolean isSelected(WebDriver driver, String ele) throws Exception {
-		boolean flag = false;
-		if (isDisplayed(driver, ele)) {
-			WebElement element = getElement(driver, ele);
-			if (element.isSelected()) {
-				flag = true;
-				logger.info("Element " + ele + " is selected");
+		return timed("isSelected", ele, () -> {
+			boolean flag = false;
+			if (isDisplayed(driver, ele)) {
+				if (withElement(driver, ele, WebElement::isSelected)) {
+					flag = true;
+					logger.info("Element " + ele + " is selected");
+				}
+				else
+					logger.error("Element " + ele + " is not selected");
 			}
-			else
-				logger.error("Element " + ele + " is not selected");
-		}
-		else {
-			throw new Exception("Unable to click on " + ele);
-		}
-		return flag;
+			else {
+				throw new Exception("Unable to click on " + ele);
+			}
+			return flag;
+		});
 	}
 
 	/**
@@ -1002,19 +1238,21 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @return title Returns the title / tooltip of the element - ele
 	 */
 	public String getTitleToolTip(WebDriver driver, String ele) throws Exception {
-		WebElement element;
-		String title = null;
-		waitUntilPageLoad(driver);
-		element = getElement(driver, ele);
-		if (element.isDisplayed()) {
-			title = element.getAttribute("title");
-			logger.info("Got title / tooltip: " + title + " from " + ele);
-		}
-		else {
-			throw new Exception("Unable to get title / tooltip from " + ele
-					+ ". Check if the object is visible and the locator is accurate or not.");
-		}
-		return title;
+		return timed("getTitleToolTip", ele, () -> {
+			WebElement element;
+			String title = null;
+			waitUntilPageLoad(driver);
+			element = getElement(driver, ele);
+			if (element.isDisplayed()) {
+				title = element.getAttribute("title");
+				logger.info("Got title / tooltip: " + title + " from " + ele);
+			}
+			else {
+				throw new Exception("Unable to get title / tooltip from " + ele
+						+ ". Check if the object is visible and the locator is accurate or not.");
+			}
+			return title;
+		});
 	}
 
 	/**
@@ -1025,36 +1263,35 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *            Element name in the object repository (OR)
 	 * @return found Returns true if the object is found else false
 	 * @note Call this method only when there is more than 1 matching object locator
-	 *       criteria
+	 *       criteria. The element resolves to the unique element for the rest of
+	 *       the script, the object repository is not modified
 	 */
 	public boolean findUniqueElement(WebDriver driver, String ele) {
-		List<WebElement> elments;
-		boolean found = false;
-		int eleCount = -1;
-		try {
-			eleCount = getElementsCount(driver, ele);
-			if (eleCount > 1) {
-				for (int i = 0; i < eleCount; i++) {
-					elments = getElements(driver, ele);
-					if (elments.get(i).isDisplayed()) {
-						if (prpOR.getProperty(ele).contains(".//")) {
-							property.updateProperty(prpOR, ele, ".//", "(//");
-							property.appendProperty(prpOR, ele, ")");
+		return timed("findUniqueElement", ele, () -> {
+			List<WebElement> elments;
+			boolean found = false;
+			int eleCount = -1;
+			try {
+				eleCount = getElementsCount(driver, ele);
+				if (eleCount > 1) {
+					for (int i = 0; i < eleCount; i++) {
+						elments = getElements(driver, ele);
+						if (elments.get(i).isDisplayed()) {
+							locators.pin(ele, i);
+							logger.info("Found a unique element which is displayed in the UI. Updated locator value is "
+									+ getLocator(ele));
+							found = true;
+							break;
 						}
-						property.appendProperty(prpOR, ele, "[" + i + 1 + "]");
-						logger.info("Found a unique element which is displayed in the UI. Updated locator value is "
-								+ prpOR.getProperty(ele));
-						found = true;
-						break;
 					}
 				}
 			}
-		}
-		catch (Exception e) {
-			logger.info("Unable to find a unique element from the matching elements", e);
-			e.printStackTrace();
-		}
-		return found;
+			catch (Exception e) {
+				logger.info("Unable to find a unique element from the matching elements", e);
+				e.printStackTrace();
+			}
+			return found;
+		});
 	}
 
 	/**
@@ -1066,15 +1303,16 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public String getCurrentURL(WebDriver driver) throws Exception {
-		String url;
-		Thread.sleep(3000);
-		waitUntilPageLoad(driver);
-		url = driver.getCurrentUrl();
-		if (url == null)
-			logger.error("Currently URL is null. Browser is not directed to any URL");
-		else
-			logger.info("Browser has navigated to " + url);
-		return url;
+		return timed("getCurrentURL", null, () -> {
+			String url;
+			waitUntilPageLoad(driver);
+			url = driver.getCurrentUrl();
+			if (url == null)
+				logger.error("Currently URL is null. Browser is not directed to any URL");
+			else
+				logger.info("Browser has navigated to " + url);
+			return url;
+		});
 	}
 
 	/**
@@ -1084,9 +1322,11 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public String getWindowHandle(WebDriver driver) throws Exception {
-		String currentWindowHandle = driver.getWindowHandle();
-		logger.info("Current window handle is " + currentWindowHandle);
-		return currentWindowHandle;
+		return timed("getWindowHandle", null, () -> {
+			String currentWindowHandle = driver.getWindowHandle();
+			logger.info("Current window handle is " + currentWindowHandle);
+			return currentWindowHandle;
+		});
 	}
 
 	/**
@@ -1098,10 +1338,12 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public ArrayList<String> getWindowHandles(WebDriver driver) throws Exception {
-		ArrayList<String> windowHandles = new ArrayList<String>(driver.getWindowHandles());
-		for (String handle : windowHandles)
-			logger.info("Window handles are " + handle);
-		return windowHandles;
+		return timed("getWindowHandles", null, () -> {
+			ArrayList<String> windowHandles = new ArrayList<String>(driver.getWindowHandles());
+			for (String handle : windowHandles)
+				logger.info("Window handles are " + handle);
+			return windowHandles;
+		});
 	}
 
 	/**
@@ -1114,12 +1356,14 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void switchWindow(WebDriver driver, String windowHandle) throws Exception {
-		if (windowHandle == null)
-			logger.error("Window handle is null. Unable to switch to browser window");
-		else {
-			driver.switchTo().window(windowHandle);
-			logger.info("Switched to window " + windowHandle);
-		}
+		timed("switchWindow", null, () -> {
+			if (windowHandle == null)
+				logger.error("Window handle is null. Unable to switch to browser window");
+			else {
+				driver.switchTo().window(windowHandle);
+				logger.info("Switched to window " + windowHandle);
+			}
+		});
 	}
 
 	/**
@@ -1132,8 +1376,10 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void switchFrame(WebDriver driver, String eleFrame) throws Exception {
-		driver.switchTo().frame(getElement(driver, eleFrame));
-		logger.info("Switched to iFrame " + eleFrame);
+		timed("switchFrame", eleFrame, () -> {
+			driver.switchTo().frame(getElement(driver, eleFrame));
+			logger.info("Switched to iFrame " + eleFrame);
+		});
 	}
 
 	/**
@@ -1142,8 +1388,10 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void switchToDefaultContent(WebDriver driver) throws Exception {
-		driver.switchTo().defaultContent();
-		logger.info("Switched to default content");
+		timed("switchToDefaultContent", null, () -> {
+			driver.switchTo().defaultContent();
+			logger.info("Switched to default content");
+		});
 	}
 
 	/**
@@ -1156,15 +1404,17 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @throws Exception
 	 */
 	public void moveToElement(WebDriver driver, String ele) throws Exception {
-		try {
-			Actions action = new Actions(driver);
-			action.moveToElement(getElement(driver, ele)).perform();
-			Thread.sleep(2000);
-			logger.info("Moved the cursor to " + ele);
-		}
-		catch (Exception e) {
-			logger.error("Unable to move the cursor to " + ele, e);
-		}
+		timed("moveToElement", ele, () -> {
+			try {
+				Actions action = new Actions(driver);
+				action.moveToElement(getElement(driver, ele)).perform();
+				waitUntilPageLoad(driver);
+				logger.info("Moved the cursor to " + ele);
+			}
+			catch (Exception e) {
+				logger.error("Unable to move the cursor to " + ele, e);
+			}
+		});
 	}
 
 	/**
@@ -1175,36 +1425,12 @@ public class UIActionsLib implements IFrameworkConstants {
 	 *            Element name in the OR
 	 * @return By.<locator-type>(locatorValue) Here the loator type can be id, name,
 	 *         classname, tagname, linktext, partiallinktext, cssselector, or xpath
+	 * @note The locators are parsed once by the LocatorCache
 	 */
 
 	private By getLocator(String strElement) {
 		try {
-			String locator = prpOR.getProperty(strElement);
-			if (locator == null)
-				throw new Exception(
-						"Object doesn't exist. Please check the object: " + strElement + " in the object repository");
-			String locatorType = locator.split(("#"), 2)[0];
-			String locatorValue = locator.split(("#"), 2)[1];
-
-			if (locatorType.toLowerCase().equals("id"))
-				return By.id(locatorValue);
-			else if (locatorType.toLowerCase().equals("name"))
-				return By.name(locatorValue);
-			else if ((locatorType.toLowerCase().equals("classname")) || (locatorType.toLowerCase().equals("class")))
-				return By.className(locatorValue);
-			else if ((locatorType.toLowerCase().equals("tagname")) || (locatorType.toLowerCase().equals("tag")))
-				return By.tagName(locatorValue);
-			else if ((locatorType.toLowerCase().equals("linktext")) || (locatorType.toLowerCase().equals("link")))
-				return By.linkText(locatorValue);
-			else if ((locatorType.toLowerCase().equals("partiallinktext"))
-					|| (locatorType.toLowerCase().equals("partiallink")))
-				return By.partialLinkText(locatorValue);
-			else if ((locatorType.toLowerCase().equals("cssselector")) || (locatorType.toLowerCase().equals("css")))
-				return By.cssSelector(locatorValue);
-			else if (locatorType.toLowerCase().equals("xpath"))
-				return By.xpath(locatorValue);
-			else
-				throw new Exception("Unknown locator type '" + locatorType + "'");
+			return locators.getLocator(strElement);
 		}
 		catch (Exception e) {
 			logger.error("Unable to fetch the element " + strElement + " from the object repository", e);
@@ -1220,18 +1446,38 @@ public class UIActionsLib implements IFrameworkConstants {
 	 * @return consoleError Returns NIL if there is no error
 	 */
 	public String getConsoleError(WebDriver driver) {
-		int i = 0;
-		StringBuilder consoleError = new StringBuilder("");
-		LogEntries logs = driver.manage().logs().get("browser");
-		for (LogEntry log : logs) {
-			consoleError.append(log + "\n");
-			if ((i++) > 1)
-				break;
-		}
-		if (consoleError.toString().equals(""))
-			consoleError.append("NIL");
-		else
-			logger.warn("Console Message: " + consoleError.toString());
-		return consoleError.toString();
+		return timed("getConsoleError", null, () -> {
+			int i = 0;
+			StringBuilder consoleError = new StringBuilder("");
+			LogEntries logs = driver.manage().logs().get("browser");
+			for (LogEntry log : logs) {
+				consoleError.append(log + "\n");
+				if ((i++) > 1)
+					break;
+			}
+			if (consoleError.toString().equals(""))
+				consoleError.append("NIL");
+			else
+				logger.warn("Console Message: " + consoleError.toString());
+			return consoleError.toString();
+		});
+	}
+
+	/**
+	 * Body of a timed action
+	 */
+	@FunctionalInterface
+	private interface TimedBody<T, E extends Exception> {
+
+		T run() throws E;
+	}
+
+	/**
+	 * Body of a timed action which doesn't return a value
+	 */
+	@FunctionalInterface
+	private interface TimedStep<E extends Exception> {
+
+		void run() throws E;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+/* WaitLib polls a condition until it is met or the time out is reached
+ * Guideline: Use this instead of Thread.sleep() in a loop to wait for an element, a file etc.
+ */
+
+package framework.utilities;
+
+import framework.constants.IFrameworkConstants.ActionPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class polls a condition with a pluggable wait strategy. The default
+ * strategy backs off exponentially with jitter starting at a few milliseconds,
+ * so a condition which is met quickly is detected quickly while a long wait
+ * doesn't poll the browser more than a couple of times a second. The time
+ * taken by every wait is recorded in a latency histogram per strategy and in
+ * the sleep audit per call site, split in to the time spent idle and the time
+ * spent checking the condition
+ *
+ * @note Every wait is capped by the TimeOut (in minutes) in the config
+ */
+public class WaitLib {
+
+	public static final Strategy BACKOFF = new Backoff("Backoff", 5, 500, 2);
+
+	private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<String, LatencyHistogram>();
+	private static final Map<String, LongAdder> timeOuts = new ConcurrentHashMap<String, LongAdder>();
+	private static final Map<String, Audit> audits = new ConcurrentHashMap<String, Audit>();
+
+	private Logger logger = LoggerFactory.getLogger(this.getClass());
+
+	private final Strategy strategy;
+	private ConfigurationLib configLib = new ConfigurationLib();
+
+	public WaitLib() {
+		this(BACKOFF);
+	}
+
+	/**
+	 * @param strategy Strategy which decides the delay between two polls
+	 */
+	public WaitLib(Strategy strategy) {
+		this.strategy = strategy;
+	}
+
+	/**
+	 * To poll a condition until it is met or the time out is reached. An exception
+	 * thrown by the condition is treated as not met
+	 *
+	 * @param callSite    Class and method which waits e.g.
+	 *                    UIActionsLib.isDisplayed. The wait is recorded under it
+	 *                    in the sleep audit
+	 * @param description Description of the condition used in the log
+	 * @param condition   Condition to be met
+	 * @param timeOut     Maximum time in milliseconds to wait. The condition is
+	 *                    checked once if it is 0
+	 * @return met Returns true if the condition is met, false if timed out
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public boolean until(String callSite, String description, Condition condition, long timeOut)
+			throws InterruptedException {
+		long startTime = System.nanoTime(), sleepTime = 0;
+		long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(Math.min(timeOut, getMaxTimeOut()));
+		boolean met = false;
+		Exception lastException = null;
+		ActionPhase previousPhase = ActionTimingLib.enter(ActionPhase.WAIT);
+		try {
+			for (int attempt = 0;; attempt++) {
+				try {
+					met = condition.isMet();
+				} catch (InterruptedException e) {
+					throw e;
+				} catch (Exception e) {
+					lastException = e;
+				}
+				long now = System.nanoTime();
+				if (met || now >= deadline)
+					break;
+				long delay = Math.max(Math.min(TimeUnit.MILLISECONDS.toNanos(strategy.getDelay(attempt)), deadline - now),
+						0);
+				TimeUnit.NANOSECONDS.sleep(delay);
+				sleepTime += System.nanoTime() - now;
+			}
+		} finally {
+			ActionTimingLib.exit(previousPhase);
+		}
+		long totalTime = System.nanoTime() - startTime;
+		long timeTaken = TimeUnit.NANOSECONDS.toMillis(totalTime);
+		getHistogram(strategy.getName()).record(totalTime);
+		if (!met)
+			timeOuts.computeIfAbsent(strategy.getName(), name -> new LongAdder()).increment();
+		record(callSite, sleepTime, totalTime - sleepTime, met);
+		if (met)
+			logger.debug("Waited " + timeTaken + " ms for " + description);
+		else if (lastException != null)
+			logger.debug("Timed out after " + timeTaken + " ms waiting for " + description + ". Last error: "
+					+ lastException.getMessage());
+		else
+			logger.debug("Timed out after " + timeTaken + " ms waiting for " + description);
+		return met;
+	}
+
+	/**
+	 * @return Returns the TimeOut in the config in milliseconds. Returns
+	 *         Long.MAX_VALUE if it is not configured
+	 */
+	private long getMaxTimeOut() {
+		try {
+			return TimeUnit.MINUTES.toMillis(Long.parseLong(configLib.getTimeOut().trim()));
+		} catch (Exception e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	/**
+	 * To record the time spent by a call site in the sleep audit. This is called
+	 * for every wait and by the other waits e.g. PageReadyLib
+	 *
+	 * @param callSite  Class and method which waited e.g. UIActionsLib.isDisplayed
+	 * @param sleepTime Time in nanoseconds spent waiting i.e. idle
+	 * @param workTime  Time in nanoseconds spent checking the condition
+	 * @param met       Pass false if the wait timed out
+	 */
+	public static void record(String callSite, long sleepTime, long workTime, boolean met) {
+		audits.computeIfAbsent(callSite, site -> new Audit()).record(sleepTime, workTime, met);
+	}
+
+	/**
+	 * To log the sleep audit and write it to a csv file. The audit lists the time
+	 * each call site spent waiting (idle) and working (checking the condition)
+	 *
+	 * @param filePath Path of the csv file to be written
+	 */
+	public static void reportSleepAudit(String filePath) {
+		Logger logger = LoggerFactory.getLogger(WaitLib.class);
+		List<String> lines = new ArrayList<String>();
+		lines.add("CallSite,Calls,TimedOut,WaitingMs,WorkingMs,TotalMs");
+		List<Map.Entry<String, Audit>> entries = new ArrayList<Map.Entry<String, Audit>>(audits.entrySet());
+		entries.sort((first, second) -> Long.compare(second.getValue().getTotalTime(), first.getValue().getTotalTime()));
+		for (Map.Entry<String, Audit> entry : entries) {
+			Audit audit = entry.getValue();
+			lines.add(entry.getKey() + "," + audit.calls.sum() + "," + audit.timedOut.sum() + ","
+					+ TimeUnit.NANOSECONDS.toMillis(audit.sleepTime.sum()) + ","
+					+ TimeUnit.NANOSECONDS.toMillis(audit.workTime.sum()) + ","
+					+ TimeUnit.NANOSECONDS.toMillis(audit.getTotalTime()));
+			logger.info("Sleep audit of " + entry.getKey() + ": " + audit);
+		}
+		try {
+			Files.write(Paths.get(filePath), lines, StandardCharsets.UTF_8);
+			logger.info("Wrote the sleep audit to " + filePath);
+		} catch (Exception e) {
+			logger.error("Unable to write the sleep audit to " + filePath, e);
+		}
+	}
+
+	/**
+	 * To get the latency histogram of a strategy
+	 *
+	 * @param strategyName Name of the strategy
+	 * @return histogram Returns the histogram which is created on the first call
+	 */
+	public static LatencyHistogram getHistogram(String strategyName) {
+		return histograms.computeIfAbsent(strategyName, name -> new LatencyHistogram());
+	}
+
+	/**
+	 * To log the latency histogram of all the strategies used so far
+	 */
+	public static void logHistograms() {
+		Logger logger = LoggerFactory.getLogger(WaitLib.class);
+		for (Map.Entry<String, LatencyHistogram> histogram : histograms.entrySet()) {
+			LongAdder timedOut = timeOuts.get(histogram.getKey());
+			logger.info("Wait latency of " + histogram.getKey() + " strategy: " + histogram.getValue() + ", timedOut="
+					+ (timedOut == null ? 0 : timedOut.sum()));
+		}
+	}
+
+	/**
+	 * A condition polled by the wait
+	 */
+	@FunctionalInterface
+	public interface Condition {
+
+		boolean isMet() throws Exception;
+	}
+
+	/**
+	 * Decides how long to wait before the next poll
+	 */
+	public interface Strategy {
+
+		String getName();
+
+		/**
+		 * @param attempt Number of polls made so far, starting at 0
+		 * @return Returns the delay in milliseconds before the next poll
+		 */
+		long getDelay(int attempt);
+	}
+
+	/**
+	 * Exponential backoff with jitter. The delay before a poll is a random value
+	 * between half and the whole of initialDelay * factor ^ attempt, capped at
+	 * maxDelay
+	 */
+	public static class Backoff implements Strategy {
+
+		private final String name;
+		private final long initialDelay, maxDelay;
+		private final double factor;
+
+		public Backoff(String name, long initialDelay, long maxDelay, double factor) {
+			this.name = name;
+			this.initialDelay = initialDelay;
+			this.maxDelay = maxDelay;
+			this.factor = factor;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public long getDelay(int attempt) {
+			long delay = (long) Math.min(maxDelay, initialDelay * Math.pow(factor, attempt));
+			return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+		}
+	}
+
+	/**
+	 * The same delay before every poll
+	 */
+	public static class Fixed implements Strategy {
+
+		private final String name;
+		private final long delay;
+
+		public Fixed(String name, long delay) {
+			this.name = name;
+			this.delay = delay;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public long getDelay(int attempt) {
+			return delay;
+		}
+	}
+
+	/**
+	 * Time spent waiting by a call site
+	 */
+	private static class Audit {
+
+		private final LongAdder calls = new LongAdder(), timedOut = new LongAdder(), sleepTime = new LongAdder(),
+				workTime = new LongAdder();
+
+		void record(long sleep, long work, boolean met) {
+			calls.increment();
+			sleepTime.add(sleep);
+			workTime.add(work);
+			if (!met)
+				timedOut.increment();
+		}
+
+		long getTotalTime() {
+			return sleepTime.sum() + workTime.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "calls=" + calls.sum() + ", timedOut=" + timedOut.sum() + ", waiting="
+					+ TimeUnit.NANOSECONDS.toMillis(sleepTime.sum()) + " ms, working="
+					+ TimeUnit.NANOSECONDS.toMillis(workTime.sum()) + " ms";
+		}
+	}
+}